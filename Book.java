@@ -1,22 +1,49 @@
 public class Book implements IBook{
+// every distinct language code, author list and publisher is stored once, books keep their ids
+static final StringDictionary LANGUAGES = new StringDictionary();
+static final StringDictionary AUTHORS = new StringDictionary();
+static final StringDictionary PUBLISHERS = new StringDictionary();
+
 private String title;
 private int pages;
 private double rating;
-private String authors;
+private int authors;
 private int ratingCounts;
 private int totalReviews;
-private String language;
+private int language;
+private int publisher;
+private int bookId;
+private long isbn;
+private long isbn13;
+private int publicationDate;
 
 /*
 * Constructor class
 */
 public Book(String title, String authors, double rating, int pages, String language, int ratingCounts) {
+this(title, authors, rating, pages, language, ratingCounts, null, -1, null, null, EpochDay.NONE);
+}
+
+/*
+* Constructor class with the publisher and the catalog keys, null and -1 for what is not known
+* @param bookId the bookID column
+* @param isbn the isbn column, an ISBN-10
+* @param isbn13 the isbn13 column
+* @param publicationDate the publication_date column in days since 1970-01-01
+*/
+public Book(String title, String authors, double rating, int pages, String language, int ratingCounts,
+String publisher, int bookId, String isbn, String isbn13, int publicationDate) {
 this.title = title;
-this.authors = authors;
+this.authors = AUTHORS.encode(authors);
 this.pages = pages;
 this.rating = rating;
 this.ratingCounts = ratingCounts;
-this.language = language;
+this.language = LANGUAGES.encode(language);
+this.publisher = PUBLISHERS.encode(publisher);
+this.bookId = bookId;
+this.isbn = Isbn.pack(isbn);
+this.isbn13 = Isbn.parse13(isbn13);
+this.publicationDate = publicationDate;
 }
 
 /*
@@ -52,7 +79,32 @@ return this.pages;
 
 @Override
 public String getAuthor() {
-return this.authors;
+return AUTHORS.decode(this.authors);
+}
+
+@Override
+public String getPublisher() {
+return PUBLISHERS.decode(this.publisher);
+}
+
+@Override
+public int getBookId() {
+return this.bookId;
+}
+
+@Override
+public String getIsbn() {
+return Isbn.unpack(this.isbn);
+}
+
+@Override
+public long getIsbn13() {
+return this.isbn13;
+}
+
+@Override
+public int getPublicationDate() {
+return this.publicationDate;
 }
 
 @Override
@@ -65,11 +117,20 @@ public int getTotalReviews() {
 return this.totalReviews;
 }
 
+@Override
+public String getLanguage() {
+return LANGUAGES.decode(this.language);
+}
+
+@Override
+public int getLanguageId() {
+return this.language;
+}
+
 @Override
 public Boolean isSameLanguage(String language) {
-if(this.language.equals(language))
-return true;
-return false;
+int id = LANGUAGES.find(language);
+return id != StringDictionary.NONE && id == this.language;
 }
 /**
 * toString() for testing
@@ -80,10 +141,10 @@ public String toString() {
 return "Title = " + title + "\n" +
 "Number of Pages = " + pages + "\n" +
 "Rating = " + rating + "\n" +
-"Author = " + authors + "\n" +
+"Author = " + getAuthor() + "\n" +
 "Total Rating = " + ratingCounts + "\n" +
 "Total Reviews = " +totalReviews + "\n" +
-"Language = " + language;
+"Language = " + getLanguage();
 }
 }
 
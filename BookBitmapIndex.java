@@ -0,0 +1,117 @@
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+/**
+ * BookBitmapIndex holds what the search filters run on, all keyed by book id: one bitmap per
+ * language (indexed by its dictionary id), while the number of pages, the total ratings and the
+ * publication day are read straight from the book store. A BookFilter turns into a predicate that
+ * checks one candidate id at a time against these, so a filtered search costs as much as its
+ * candidates and never a pass over the whole catalog.
+ */
+public class BookBitmapIndex {
+    // bitmaps by language id, null for ids no book has yet
+    private final List<BitSet> languages;
+    // the page, total rating and date columns of the books
+    private final IBookStore store;
+
+    /**
+     * @param store store of the indexed books
+     */
+    public BookBitmapIndex(IBookStore store) {
+        this.languages = new ArrayList<>();
+        this.store = store;
+    }
+
+    /**
+     * index the language of a book
+     * @param id book id
+     * @param book the book
+     */
+    public void add(int id, IBook book) {
+        int language = book.getLanguageId();
+        if (language != StringDictionary.NONE) {
+            while (languages.size() <= language) {
+                languages.add(null);
+            }
+            if (languages.get(language) == null) {
+                languages.set(language, new BitSet());
+            }
+            languages.get(language).set(id);
+        }
+    }
+
+    /**
+     * @return the bitmap of the language code, null if no book is written in it
+     */
+    private BitSet bitmap(String language) {
+        int id = Book.LANGUAGES.find(language);
+        return id == StringDictionary.NONE || id >= languages.size() ? null : languages.get(id);
+    }
+
+    /**
+     * turn the filter into a check of single book ids
+     * @param filter the filters to apply
+     * @return predicate keeping the ids of the books passing every filter, null if the filter
+     * keeps every book
+     */
+    public IntPredicate matching(BookFilter filter) {
+        List<String> codes = filter.getLanguages();
+        BitSet[] bitmaps = new BitSet[codes.size()];
+        for (int i = 0; i < bitmaps.length; i++) {
+            bitmaps[i] = bitmap(codes.get(i));
+            if (bitmaps[i] == null) {
+                return id -> false;
+            }
+        }
+        if (bitmaps.length == 0 && filter.getFewerPagesThan() == Integer.MAX_VALUE
+                && filter.getMoreRatingsThan() == Integer.MIN_VALUE
+                && !filter.hasPublicationDateRange()) {
+            return null;
+        }
+        return new Matcher(filter, bitmaps);
+    }
+
+    /**
+     * the filter as a check of one id, the page and rating comparisons run first since they
+     * usually reject more books
+     */
+    private final class Matcher implements IntPredicate {
+        private final int fewerPagesThan;
+        private final int moreRatingsThan;
+        private final boolean dated;
+        private final int from;
+        private final int to;
+        private final BitSet[] bitmaps;
+
+        Matcher(BookFilter filter, BitSet[] bitmaps) {
+            this.fewerPagesThan = filter.getFewerPagesThan();
+            this.moreRatingsThan = filter.getMoreRatingsThan();
+            this.dated = filter.hasPublicationDateRange();
+            this.from = filter.getPublishedFrom();
+            this.to = filter.getPublishedTo();
+            this.bitmaps = bitmaps;
+        }
+
+        @Override
+        public boolean test(int id) {
+            if (store.getNumberOfPages(id) >= fewerPagesThan
+                    || store.getTotalRating(id) <= moreRatingsThan) {
+                return false;
+            }
+            if (dated) {
+                int day = store.getPublicationDate(id);
+                if (day == EpochDay.NONE || day < from || day > to) {
+                    return false;
+                }
+            }
+            for (BitSet ids : bitmaps) {
+                if (!ids.get(id)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * BookBucket is the list of books a word tree keeps under one word. It only holds the ids of the
+ * books in an IBookStore and hands out views, so a book indexed under many words costs an int per
+ * word and no sort key stays on the heap. Books are ordered by title and then by id, the order the
+ * tree searches return.
+ *
+ * Appending is O(1) and never compares: the ids after the sorted prefix are sorted and merged into
+ * it once, by sort() at the end of a load or by the first read after a later append. Reads only
+ * sort under the bucket's lock, so concurrent searches never see a half sorted bucket.
+ */
+public class BookBucket extends AbstractList<IBook> implements IBucket<IBook>, RandomAccess {
+    private static final int[] EMPTY = new int[0];
+
+    private final IBookStore store;
+    private int[] ids;
+    private volatile int size;
+    // ids[0, sortedSize) are in order, the rest were appended after the last sort
+    private volatile int sortedSize;
+
+    /**
+     * @param store store the ids point into
+     */
+    public BookBucket(IBookStore store) {
+        this.store = store;
+        this.ids = EMPTY;
+    }
+
+    /**
+     * a bucket holding one book
+     * @param store store the ids point into
+     * @param id id of the first book
+     */
+    public BookBucket(IBookStore store, int id) {
+        this(store);
+        add(id);
+    }
+
+    /**
+     * append a book, the bucket is put in order on the next read or sort()
+     * @param id book id
+     */
+    public void add(int id) {
+        int n = size;
+        if (n == ids.length) {
+            ids = Arrays.copyOf(ids, Math.max(4, n + (n >> 1)));
+        }
+        ids[n] = id;
+        size = n + 1;
+        modCount++;
+    }
+
+    @Override
+    public void append(Collection<? extends IBook> more) {
+        if (more instanceof BookBucket && ((BookBucket) more).store == store) {
+            BookBucket other = (BookBucket) more;
+            for (int i = 0; i < other.size; i++) {
+                add(other.ids[i]);
+            }
+            return;
+        }
+        for (IBook book : more) {
+            if (!(book instanceof BookView)) {
+                throw new IllegalArgumentException("not a book of this store: " + book);
+            }
+            add(((BookView) book).getId());
+        }
+    }
+
+    @Override
+    public boolean isOrdered() {
+        return true;
+    }
+
+    /**
+     * a new wrapper per call, there are far more buckets than searches holding one
+     */
+    @Override
+    public List<IBook> readOnly() {
+        sort();
+        return Collections.unmodifiableList(this);
+    }
+
+    /**
+     * put the appended ids in order: the ids that already follow the sorted prefix only cost a
+     * compare, the rest are sorted and merged into the prefix
+     */
+    public void sort() {
+        if (sortedSize == size) {
+            return;
+        }
+        synchronized (this) {
+            int n = size;
+            int sorted = sortedSize;
+            while (sorted < n && (sorted == 0 || compare(ids[sorted - 1], ids[sorted]) <= 0)) {
+                sorted++;
+            }
+            if (sorted < n) {
+                Integer[] rest = new Integer[n - sorted];
+                for (int i = 0; i < rest.length; i++) {
+                    rest[i] = ids[sorted + i];
+                }
+                Arrays.sort(rest, this::compare);
+                int[] merged = new int[ids.length];
+                int i = 0;
+                int j = 0;
+                int k = 0;
+                while (i < sorted && j < rest.length) {
+                    merged[k++] = compare(ids[i], rest[j]) <= 0 ? ids[i++] : rest[j++];
+                }
+                while (i < sorted) {
+                    merged[k++] = ids[i++];
+                }
+                while (j < rest.length) {
+                    merged[k++] = rest[j++];
+                }
+                ids = merged;
+            }
+            sortedSize = n;
+        }
+    }
+
+    /**
+     * title order, then id order for books with the same title
+     */
+    private int compare(int a, int b) {
+        int c = store.getTitle(a).compareTo(store.getTitle(b));
+        return c != 0 ? c : Integer.compare(a, b);
+    }
+
+    /**
+     * lists of different sizes are never equal, checked first so the tree's duplicate check on
+     * every insert does not sort the bucket
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (o instanceof List && ((List<?>) o).size() != size) {
+            return false;
+        }
+        return super.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        return super.hashCode();
+    }
+
+    @Override
+    public IBook get(int index) {
+        sort();
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index " + index + " size " + size);
+        }
+        return store.get(ids[index]);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * release the spare capacity left over from growing, used once loading is finished
+     */
+    public void trim() {
+        sort();
+        if (ids.length != size) {
+            ids = size == 0 ? EMPTY : Arrays.copyOf(ids, size);
+        }
+    }
+}
@@ -0,0 +1,197 @@
+import java.util.Arrays;
+
+/**
+ * BookColumns stores the catalog as parallel primitive arrays indexed by book id, one array per
+ * field, instead of one object per book. Ranking and filtering a run of ids reads contiguous
+ * arrays rather than chasing book objects around the heap, and the heap holds a few large arrays
+ * instead of millions of small objects. Languages, authors and publishers are kept as their
+ * dictionary ids, the ISBN-10 packed into a long.
+ *
+ * One thread adds books while others may read the books already added, see Columns.
+ */
+public class BookColumns implements IBookStore {
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /**
+     * The arrays of every column, all of the same length. Growing copies them into a new Columns
+     * that is published with one volatile write once the copies are filled, so a reader holding a
+     * view of a book can never see a grown array without the fields copied into it.
+     */
+    private static final class Columns {
+        final String[] titles;
+        final int[] authors;
+        final double[] ratings;
+        final int[] pages;
+        final int[] ratingCounts;
+        final int[] reviews;
+        final int[] languages;
+        final int[] publishers;
+        final int[] bookIds;
+        final long[] isbns;
+        final long[] isbn13s;
+        final int[] publicationDates;
+
+        Columns(int capacity) {
+            this.titles = new String[capacity];
+            this.authors = new int[capacity];
+            this.ratings = new double[capacity];
+            this.pages = new int[capacity];
+            this.ratingCounts = new int[capacity];
+            this.reviews = new int[capacity];
+            this.languages = new int[capacity];
+            this.publishers = new int[capacity];
+            this.bookIds = new int[capacity];
+            this.isbns = new long[capacity];
+            this.isbn13s = new long[capacity];
+            this.publicationDates = new int[capacity];
+        }
+
+        Columns(Columns old, int capacity) {
+            this.titles = Arrays.copyOf(old.titles, capacity);
+            this.authors = Arrays.copyOf(old.authors, capacity);
+            this.ratings = Arrays.copyOf(old.ratings, capacity);
+            this.pages = Arrays.copyOf(old.pages, capacity);
+            this.ratingCounts = Arrays.copyOf(old.ratingCounts, capacity);
+            this.reviews = Arrays.copyOf(old.reviews, capacity);
+            this.languages = Arrays.copyOf(old.languages, capacity);
+            this.publishers = Arrays.copyOf(old.publishers, capacity);
+            this.bookIds = Arrays.copyOf(old.bookIds, capacity);
+            this.isbns = Arrays.copyOf(old.isbns, capacity);
+            this.isbn13s = Arrays.copyOf(old.isbn13s, capacity);
+            this.publicationDates = Arrays.copyOf(old.publicationDates, capacity);
+        }
+    }
+
+    // replaced whenever the store grows, only by the thread that adds books
+    private volatile Columns columns;
+    private int size;
+
+    public BookColumns() {
+        this(INITIAL_CAPACITY);
+    }
+
+    /**
+     * @param capacity number of books to make room for up front
+     */
+    public BookColumns(int capacity) {
+        this.columns = new Columns(Math.max(1, capacity));
+        this.size = 0;
+    }
+
+    @Override
+    public int add(IBook book) {
+        Columns c = columns;
+        if (size == c.titles.length) {
+            c = resize(size + (size >> 1) + 1);
+        }
+        int id = size;
+        c.titles[id] = book.getTitle();
+        c.authors[id] = Book.AUTHORS.encode(book.getAuthor());
+        c.ratings[id] = book.getRating();
+        c.pages[id] = book.getNumberOfPages();
+        c.ratingCounts[id] = book.getTotalRating();
+        c.reviews[id] = book.getTotalReviews();
+        c.languages[id] = book.getLanguageId();
+        c.publishers[id] = Book.PUBLISHERS.encode(book.getPublisher());
+        c.bookIds[id] = book.getBookId();
+        c.isbns[id] = Isbn.pack(book.getIsbn());
+        c.isbn13s[id] = book.getIsbn13();
+        c.publicationDates[id] = book.getPublicationDate();
+        size++;
+        return id;
+    }
+
+    private Columns resize(int capacity) {
+        Columns grown = new Columns(columns, capacity);
+        columns = grown;
+        return grown;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the columns, after checking the id is in the store
+     */
+    private Columns columns(int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("id " + id + " size " + size);
+        }
+        return columns;
+    }
+
+    @Override
+    public String getTitle(int id) {
+        return columns(id).titles[id];
+    }
+
+    @Override
+    public String getAuthor(int id) {
+        return Book.AUTHORS.decode(columns(id).authors[id]);
+    }
+
+    @Override
+    public String getPublisher(int id) {
+        return Book.PUBLISHERS.decode(columns(id).publishers[id]);
+    }
+
+    @Override
+    public int getBookId(int id) {
+        return columns(id).bookIds[id];
+    }
+
+    @Override
+    public String getIsbn(int id) {
+        return Isbn.unpack(columns(id).isbns[id]);
+    }
+
+    @Override
+    public long getIsbn13(int id) {
+        return columns(id).isbn13s[id];
+    }
+
+    @Override
+    public int getPublicationDate(int id) {
+        return columns(id).publicationDates[id];
+    }
+
+    @Override
+    public double getRating(int id) {
+        return columns(id).ratings[id];
+    }
+
+    @Override
+    public int getNumberOfPages(int id) {
+        return columns(id).pages[id];
+    }
+
+    @Override
+    public int getTotalRating(int id) {
+        return columns(id).ratingCounts[id];
+    }
+
+    @Override
+    public int getTotalReviews(int id) {
+        return columns(id).reviews[id];
+    }
+
+    @Override
+    public int getLanguageId(int id) {
+        return columns(id).languages[id];
+    }
+
+    @Override
+    public IBook get(int id) {
+        columns(id);
+        return new BookView(this, id);
+    }
+
+    @Override
+    public void trim() {
+        if (size < columns.titles.length) {
+            resize(Math.max(1, size));
+        }
+    }
+}
@@ -0,0 +1,186 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * BookFilter combines the language, total rating, page and publication date filters of a search
+ * into one predicate
+ * so the backend can apply all of them in a single pass over the candidates. Setting the same
+ * kind of filter again narrows it further, the same as calling the getXxxFilter methods one after
+ * another. A limit stops the pass as soon as enough books have been kept.
+ */
+public class BookFilter {
+    private final List<String> languages;
+    // dictionary ids of the languages, NONE until the code has been seen on a book
+    private int[] languageIds;
+    private int moreRatingsThan;
+    private int fewerPagesThan;
+    // publication date range in epoch days, both inclusive
+    private int publishedFrom;
+    private int publishedTo;
+    private int limit;
+
+    /**
+     * a filter that keeps every book
+     */
+    public BookFilter() {
+        this.languages = new ArrayList<>();
+        this.languageIds = new int[0];
+        this.moreRatingsThan = Integer.MIN_VALUE;
+        this.fewerPagesThan = Integer.MAX_VALUE;
+        this.publishedFrom = Integer.MIN_VALUE;
+        this.publishedTo = Integer.MAX_VALUE;
+        this.limit = Integer.MAX_VALUE;
+    }
+
+    /**
+     * keep only books written in the language
+     * @param language language code
+     * @return this filter
+     */
+    public BookFilter language(String language) {
+        if (language == null) {
+            throw new IllegalArgumentException("arg cannot be a null language");
+        }
+        languages.add(language);
+        languageIds = Arrays.copyOf(languageIds, languages.size());
+        languageIds[languageIds.length - 1] = Book.LANGUAGES.find(language);
+        return this;
+    }
+
+    /**
+     * keep only books with more total ratings than numRates
+     * @param numRates exclusive lower bound of the total ratings
+     * @return this filter
+     */
+    public BookFilter moreRatingsThan(int numRates) {
+        this.moreRatingsThan = Math.max(this.moreRatingsThan, numRates);
+        return this;
+    }
+
+    /**
+     * keep only books with fewer pages than numPages
+     * @param numPages exclusive upper bound of the number of pages
+     * @return this filter
+     */
+    public BookFilter fewerPagesThan(int numPages) {
+        this.fewerPagesThan = Math.min(this.fewerPagesThan, numPages);
+        return this;
+    }
+
+    /**
+     * keep only books published between the two days, books without a publication date are
+     * dropped
+     * @param fromDay first day in days since 1970-01-01, inclusive
+     * @param toDay last day in days since 1970-01-01, inclusive
+     * @return this filter
+     */
+    public BookFilter publishedBetween(int fromDay, int toDay) {
+        if (fromDay == EpochDay.NONE || toDay == EpochDay.NONE) {
+            throw new IllegalArgumentException("arg cannot be a missing date");
+        }
+        this.publishedFrom = Math.max(this.publishedFrom, fromDay);
+        this.publishedTo = Math.min(this.publishedTo, toDay);
+        return this;
+    }
+
+    /**
+     * stop once this many books have been kept
+     * @param limit maximum number of books in the result
+     * @return this filter
+     */
+    public BookFilter limit(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        this.limit = limit;
+        return this;
+    }
+
+    public List<String> getLanguages() {
+        return languages;
+    }
+
+    public int getMoreRatingsThan() {
+        return moreRatingsThan;
+    }
+
+    public int getFewerPagesThan() {
+        return fewerPagesThan;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getPublishedFrom() {
+        return publishedFrom;
+    }
+
+    public int getPublishedTo() {
+        return publishedTo;
+    }
+
+    /**
+     * @return true if publishedBetween has been set
+     */
+    public boolean hasPublicationDateRange() {
+        return publishedFrom != Integer.MIN_VALUE || publishedTo != Integer.MAX_VALUE;
+    }
+
+    /**
+     * check a book against every filter, the page and rating comparisons run first since they
+     * usually reject more books, languages are compared by dictionary id
+     * @param book book to check
+     * @return true if the book passes every filter
+     */
+    public boolean test(IBook book) {
+        if (book == null) {
+            return false;
+        }
+        if (book.getNumberOfPages() >= fewerPagesThan) {
+            return false;
+        }
+        if (book.getTotalRating() <= moreRatingsThan) {
+            return false;
+        }
+        if (hasPublicationDateRange()) {
+            int date = book.getPublicationDate();
+            if (date == EpochDay.NONE || date < publishedFrom || date > publishedTo) {
+                return false;
+            }
+        }
+        for (int i = 0; i < languageIds.length; i++) {
+            int id = languageIds[i];
+            if (id == StringDictionary.NONE) {
+                // the code may have shown up on a book since the filter was built
+                id = languageIds[i] = Book.LANGUAGES.find(languages.get(i));
+                if (id == StringDictionary.NONE) {
+                    return false;
+                }
+            }
+            if (book.getLanguageId() != id) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * describe the filter in a normalized form, two filters that keep the same books describe
+     * themselves the same way, so the description can be part of a cache key
+     * @return the normalized description
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("lang=");
+        List<String> sorted = new ArrayList<>(new TreeSet<>(languages));
+        sb.append(String.join(",", sorted));
+        sb.append(";ratings>").append(moreRatingsThan);
+        sb.append(";pages<").append(fewerPagesThan);
+        sb.append(";published=").append(publishedFrom).append("..").append(publishedTo);
+        sb.append(";limit=").append(limit);
+        return sb.toString();
+    }
+}
@@ -48,7 +48,7 @@ public class BookFrontend implements IBookSearcherFrontend {
 			switch (decision) {
 			case "r":
 			case "1":
-				System.out.println("Choose a rating: ");
+				System.out.println("Choose a rating, or a range like 4.2-4.6: ");
 				ratingSearch();
 				break;
 			case "t":
@@ -108,29 +108,35 @@ public class BookFrontend implements IBookSearcherFrontend {
 	 * display the books that will be call after search word and rating
 	 */
 	public void displayBooks(List<IBook> books) {
-		List<IBook> filt_books = books;
-		int number = 1;
-		// go over the 3 filter lists to filter out the books
-		if (language_filt.size() != 0) {
-			for (int i = 0; i < language_filt.size(); i++) {
-				filt_books = placeholder.getLanFilter(language_filt.get(i), filt_books);
-			}
+		printBooks(placeholder.filter(currentFilter(), books));
+	}
 
+	/**
+	 * combine the 3 filter lists into one filter so the books are filtered in a single pass
+	 * 
+	 * @return the filter of everything the user has set
+	 */
+	private BookFilter currentFilter() {
+		BookFilter filter = new BookFilter();
+		for (int i = 0; i < language_filt.size(); i++) {
+			filter.language(language_filt.get(i));
 		}
-		if (rating_filt.size() != 0) {
-			for (int i = 0; i < rating_filt.size(); i++) {
-				filt_books = placeholder.getRateFilter(rating_filt.get(i), filt_books);
-
-			}
-
+		for (int i = 0; i < rating_filt.size(); i++) {
+			filter.moreRatingsThan(rating_filt.get(i));
 		}
-		if (num_pages_filt.size() != 0) {
-			for (int i = 0; i < num_pages_filt.size(); i++) {
-				filt_books = placeholder.getPagesFilter(num_pages_filt.get(i), filt_books);
-
-			}
-
+		for (int i = 0; i < num_pages_filt.size(); i++) {
+			filter.fewerPagesThan(num_pages_filt.get(i));
 		}
+		return filter;
+	}
+
+	/**
+	 * print books that already went through the filter
+	 * 
+	 * @param filt_books the filtered books
+	 */
+	private void printBooks(List<IBook> filt_books) {
+		int number = 1;
 		System.out.println("Found " + filt_books.size() + "/" + placeholder.getNumberOfBooks() + " matches.");
 		// After going through the filter, we then display the books using a for loop
 		for (IBook book : filt_books) {
@@ -148,9 +154,10 @@ public class BookFrontend implements IBookSearcherFrontend {
 	public void wordSearch() {
 		String filter = scanner.nextLine().toLowerCase().trim();
 		if (filter.length() != 0) {
-			List<IBook> filteredByWord = placeholder.searchByTitleWord(filter);
+			// the backend filters while it collects the matches
+			List<IBook> filteredByWord = placeholder.searchByTitleWord(filter, currentFilter());
 			if(filteredByWord != null) {
-				displayBooks(filteredByWord);
+				printBooks(filteredByWord);
 			}
 			else {
 				System.out.println("nothing fonud from this title");
@@ -161,16 +168,33 @@ public class BookFrontend implements IBookSearcherFrontend {
 	}
 
 	/**
-	 * call when user wants to search a sepcidifc rating between 0~5 reads word from
-	 * System.in, and display books
+	 * call when user wants to search a sepcidifc rating between 0~5, or a range of ratings
+	 * written as min-max, reads word from System.in, and display books
 	 */
 	public void ratingSearch() {
 		try {
-			double filter = Double.parseDouble(scanner.nextLine());
+			String input = scanner.nextLine().trim();
+			int dash = input.indexOf('-', 1);
+			if (dash > 0) {
+				double min = Double.parseDouble(input.substring(0, dash).trim());
+				double max = Double.parseDouble(input.substring(dash + 1).trim());
+				if (!(max > 5.0) && !(min > max)) {
+					List<IBook> filteredByRange = placeholder.searchByRatingRange(min, max, currentFilter());
+					if (filteredByRange != null) {
+						printBooks(filteredByRange);
+					} else {
+						System.out.println("nothing fonud from this rating range");
+					}
+				} else {
+					System.out.println("choose another rating range");
+				}
+				return;
+			}
+			double filter = Double.parseDouble(input);
 			if (!(filter > 5.0)) {
-				List<IBook> filteredByRating = placeholder.searchByRating(filter);
+				List<IBook> filteredByRating = placeholder.searchByRating(filter, currentFilter());
 				if(filteredByRating != null) {
-					displayBooks(filteredByRating);
+					printBooks(filteredByRating);
 				}
 				else {
 					System.out.println("nothing fonud from this rating");
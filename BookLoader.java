@@ -40,26 +40,36 @@ for (int temp = 1; temp < list.getLength(); temp++) {
 	 Element element = (Element) node;
 
 	 // get Record's attribute
+	 String bookId = element.getAttribute("A");
 	 String title = element.getAttribute("B");
 	 String authors = element.getAttribute("C");
 	 String avgRating = element.getAttribute("D");
+	 String isbn = element.getAttribute("E");
+	 String isbn13 = element.getAttribute("F");
 	 String lanCode = element.getAttribute("G");
 	 String numPages = element.getAttribute("H");
 	 String totalRating = element.getAttribute("I");
+	 String publicationDate = element.getAttribute("K");
+	 String publisher = element.getAttribute("L");
 
 	 double rating = Double.parseDouble(avgRating);
 	 int pages = Integer.parseInt(numPages);
 	 int ratingCounts = Integer.parseInt(totalRating);
 
-	 Book book = new Book(title,authors,rating,pages,lanCode,ratingCounts);
+	 Book book = new Book(title,authors,rating,pages,lanCode,ratingCounts,publisher,
+	 Integer.parseInt(bookId),isbn,isbn13,EpochDay.parse(publicationDate));
 	 bookList.add(book);
 	 }
 	 else
 	 continue;
 
 	 }
-	 } catch (ParserConfigurationException | SAXException | IOException e) {
-	 e.printStackTrace();
+	 } catch (FileNotFoundException e) {
+	 throw e;
+	 } catch (ParserConfigurationException | SAXException | NumberFormatException e) {
+	 throw new IllegalStateException("could not parse " + filepath, e);
+	 } catch (IOException e) {
+	 throw new IllegalStateException("could not read " + filepath, e);
 	 }
 	 return bookList;
 	 }
@@ -0,0 +1,50 @@
+/**
+ * The orders top-k searches can rank books by, a higher score ranks first.
+ */
+public enum BookRanking {
+    // average rating, the same order as Book.compareTo
+    RATING {
+        @Override
+        public double score(double rating, int ratingCount) {
+            return rating;
+        }
+    },
+    // number of ratings the book has received
+    RATING_COUNT {
+        @Override
+        public double score(double rating, int ratingCount) {
+            return ratingCount;
+        }
+    },
+    // average rating pulled towards PRIOR_RATING until the book has enough ratings to be trusted,
+    // so a single 5 star rating does not outrank thousands of 4.5 star ones
+    WEIGHTED {
+        @Override
+        public double score(double rating, int ratingCount) {
+            double votes = Math.max(0, ratingCount);
+            return (votes * rating + PRIOR_VOTES * PRIOR_RATING) / (votes + PRIOR_VOTES);
+        }
+    };
+
+    // weight of the prior in WEIGHTED, counted as this many ratings
+    private static final double PRIOR_VOTES = 50;
+    // rating every book starts from in WEIGHTED
+    private static final double PRIOR_RATING = 3.0;
+
+    /**
+     * @param book book to score
+     * @return score of the book, higher ranks first
+     */
+    public double score(IBook book) {
+        return score(book.getRating(), book.getTotalRating());
+    }
+
+    /**
+     * score from the two columns every ranking reads, so a store can be ranked without creating
+     * book objects
+     * @param rating average rating of the book
+     * @param ratingCount number of ratings the book has received
+     * @return score of the book, higher ranks first
+     */
+    public abstract double score(double rating, int ratingCount);
+}
@@ -0,0 +1,338 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * BookSearchServer serves the searches of an IBookSearcherBackend as HTTP/JSON on the JDK's
+ * built-in com.sun.net.httpserver, one virtual thread per request when the JVM has them and a
+ * cached thread pool otherwise. It only listens on the loopback address.
+ *
+ * Endpoints (GET):
+ *   /books/title?q=harry+potter     books whose title contains every word
+ *   /books/prefix?q=harr            books with a title word starting with q
+ *   /books/author?q=rowling         books whose author list contains every word
+ *   /books/publisher?q=scholastic   books whose publisher contains every word
+ *   /books/id?q=2                   the book with this bookID
+ *   /books/isbn?q=0439785960        the book with this ISBN-10 or ISBN-13
+ *   /books/rating?r=4.5             books with exactly this rating
+ *   /books/range?min=4.2&max=4.6    books with a rating in the range, lowest first
+ *   /books/published?from=2000&to=2005  books published in those years, earliest first
+ * Every endpoint takes the filters lang, maxPages (fewer pages than), minRatings (more ratings
+ * than), from / to (first and last year of publication), and offset / limit for pagination.
+ */
+public class BookSearchServer {
+    private static final Logger LOG = Logger.getLogger(BookSearchServer.class.getName());
+    private static final int DEFAULT_LIMIT = 20;
+    private static final int MAX_LIMIT = 1000;
+    // largest offset for which offset + limit + 1, the books a page asks for, fits an int
+    private static final int MAX_OFFSET = Integer.MAX_VALUE - MAX_LIMIT - 1;
+    // the years an open end of a publication range stands for
+    private static final int MIN_YEAR = 0;
+    private static final int MAX_YEAR = 9999;
+
+    private final IBookSearcherBackend backend;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * @param backend backend the searches run on, must be safe for concurrent reads
+     * @param port port to listen on, 0 for any free port
+     */
+    public BookSearchServer(IBookSearcherBackend backend, int port) throws IOException {
+        this.backend = backend;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 1024);
+        this.executor = newRequestExecutor();
+        server.setExecutor(executor);
+        server.createContext("/books/", this::handle);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * stop accepting requests and wait up to a second for running ones
+     */
+    public void stop() {
+        server.stop(1);
+        executor.shutdown();
+    }
+
+    /**
+     * @return the port the server listens on
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * one virtual thread per request on JVMs that have them (looked up reflectively so the class
+     * still builds and runs on older JDKs), a cached pool of platform threads otherwise
+     */
+    private static ExecutorService newRequestExecutor() {
+        try {
+            Method virtual = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) virtual.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                send(exchange, 405, error("only GET is supported"));
+                return;
+            }
+            Map<String, String> params = parseQuery(exchange.getRequestURI().getRawQuery());
+            String path = exchange.getRequestURI().getPath();
+            int offset = intParam(params, "offset", 0);
+            int limit = Math.min(intParam(params, "limit", DEFAULT_LIMIT), MAX_LIMIT);
+            if (offset < 0 || limit < 1) {
+                throw new IllegalArgumentException("offset must be >= 0 and limit > 0");
+            }
+            if (offset > MAX_OFFSET) {
+                throw new IllegalArgumentException("offset must be at most " + MAX_OFFSET);
+            }
+            // one extra book tells whether there is another page
+            BookFilter filter = filter(params).limit(offset + limit + 1);
+            List<IBook> books;
+            switch (path) {
+            case "/books/title":
+                books = backend.searchByTitleWord(required(params, "q"), filter);
+                break;
+            case "/books/prefix":
+                books = backend.searchByTitlePrefix(required(params, "q"));
+                books = books == null ? null : backend.filter(filter, books);
+                break;
+            case "/books/author":
+                books = backend.searchByAuthor(required(params, "q"));
+                books = books == null ? null : backend.filter(filter, books);
+                break;
+            case "/books/publisher":
+                books = backend.searchByPublisher(required(params, "q"));
+                books = books == null ? null : backend.filter(filter, books);
+                break;
+            case "/books/published":
+                books = backend.searchByPublicationDate(filter.getPublishedFrom(),
+                        filter.getPublishedTo(), filter);
+                break;
+            case "/books/id":
+                required(params, "q");
+                books = one(backend.getBookById(intParam(params, "q", -1)));
+                break;
+            case "/books/isbn":
+                books = one(backend.getBookByIsbn(required(params, "q")));
+                break;
+            case "/books/rating":
+                books = backend.searchByRating(doubleParam(params, "r"), filter);
+                break;
+            case "/books/range":
+                books = backend.searchByRatingRange(doubleParam(params, "min"),
+                        doubleParam(params, "max"), filter);
+                break;
+            default:
+                send(exchange, 404, error("unknown endpoint " + path));
+                return;
+            }
+            send(exchange, 200, page(books, offset, limit));
+        } catch (IllegalArgumentException e) {
+            send(exchange, 400, error(e.getMessage()));
+        } catch (RuntimeException e) {
+            // the client only sees a generic error, the cause goes to the log
+            LOG.log(Level.SEVERE, "request " + exchange.getRequestURI() + " failed", e);
+            send(exchange, 500, error("internal error"));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * build the filter from the lang, maxPages and minRatings parameters
+     */
+    private static BookFilter filter(Map<String, String> params) {
+        BookFilter filter = new BookFilter();
+        if (params.containsKey("lang")) {
+            filter.language(params.get("lang"));
+        }
+        if (params.containsKey("maxPages")) {
+            filter.fewerPagesThan(intParam(params, "maxPages", 0));
+        }
+        if (params.containsKey("minRatings")) {
+            filter.moreRatingsThan(intParam(params, "minRatings", 0));
+        }
+        if (params.containsKey("from") || params.containsKey("to")) {
+            // whole years, from January 1st of the first to December 31st of the last
+            filter.publishedBetween(EpochDay.of(intParam(params, "from", MIN_YEAR), 1, 1),
+                    EpochDay.of(intParam(params, "to", MAX_YEAR), 12, 31));
+        }
+        return filter;
+    }
+
+    /**
+     * render one page of the results as json
+     */
+    private static String page(List<IBook> books, int offset, int limit) {
+        int size = books == null ? 0 : books.size();
+        int end = Math.min(size, offset + limit);
+        StringBuilder sb = new StringBuilder(256);
+        sb.append("{\"offset\":").append(offset).append(",\"limit\":").append(limit);
+        sb.append(",\"hasMore\":").append(size > offset + limit).append(",\"books\":[");
+        for (int i = offset; i < end; i++) {
+            if (i > offset) {
+                sb.append(',');
+            }
+            IBook book = books.get(i);
+            sb.append("{\"title\":");
+            string(sb, book.getTitle());
+            sb.append(",\"author\":");
+            string(sb, book.getAuthor());
+            sb.append(",\"publisher\":");
+            string(sb, book.getPublisher());
+            sb.append(",\"bookId\":").append(book.getBookId());
+            sb.append(",\"isbn\":");
+            string(sb, book.getIsbn());
+            sb.append(",\"isbn13\":").append(book.getIsbn13());
+            sb.append(",\"published\":");
+            string(sb, EpochDay.format(book.getPublicationDate()));
+            sb.append(",\"rating\":").append(book.getRating());
+            sb.append(",\"pages\":").append(book.getNumberOfPages());
+            sb.append(",\"language\":");
+            string(sb, book.getLanguage());
+            sb.append(",\"ratingCount\":").append(book.getTotalRating()).append('}');
+        }
+        return sb.append("]}").toString();
+    }
+
+    /**
+     * the result of an exact lookup as a list, null if there is no book
+     */
+    private static List<IBook> one(IBook book) {
+        return book == null ? null : Collections.singletonList(book);
+    }
+
+    private static String error(String message) {
+        StringBuilder sb = new StringBuilder("{\"error\":");
+        string(sb, message);
+        return sb.append('}').toString();
+    }
+
+    /**
+     * append a json string literal
+     */
+    private static void string(StringBuilder sb, String s) {
+        if (s == null) {
+            sb.append("null");
+            return;
+        }
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+            case '"':
+                sb.append("\\\"");
+                break;
+            case '\\':
+                sb.append("\\\\");
+                break;
+            case '\n':
+                sb.append("\\n");
+                break;
+            case '\r':
+                sb.append("\\r");
+                break;
+            case '\t':
+                sb.append("\\t");
+                break;
+            default:
+                if (c < 0x20) {
+                    sb.append(String.format("\\u%04x", (int) c));
+                } else {
+                    sb.append(c);
+                }
+            }
+        }
+        sb.append('"');
+    }
+
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static Map<String, String> parseQuery(String query) {
+        Map<String, String> params = new HashMap<>();
+        if (query == null) {
+            return params;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            params.put(URLDecoder.decode(key, StandardCharsets.UTF_8),
+                    URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
+    private static String required(Map<String, String> params, String name) {
+        String value = params.get(name);
+        if (value == null || value.trim().isEmpty()) {
+            throw new IllegalArgumentException("missing parameter " + name);
+        }
+        return value;
+    }
+
+    private static int intParam(Map<String, String> params, String name, int fallback) {
+        String value = params.get(name);
+        if (value == null) {
+            return fallback;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("parameter " + name + " must be an integer");
+        }
+    }
+
+    private static double doubleParam(Map<String, String> params, String name) {
+        try {
+            return Double.parseDouble(required(params, name).trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("parameter " + name + " must be a number");
+        }
+    }
+
+    /**
+     * load the catalog into a concurrent backend behind a query cache and serve it, the port is
+     * the optional argument
+     */
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        IBookSearcherBackend backend = BookSearcherApp.load(loaded -> new CachingBookSearcherBackend(
+                new ConcurrentBookSearcherBackend(loaded, new BookColumns())), BookColumns::new, false);
+        BookSearchServer server = new BookSearchServer(backend, port);
+        server.start();
+        System.out.println("Serving " + backend.getNumberOfBooks() + " books on http://localhost:"
+                + server.getPort() + "/books/");
+    }
+}
@@ -1,17 +1,107 @@
-import java.util.ArrayList;
-import java.util.List;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * Entry Main method for the app, step through all role classes to run the program
  */
 public class BookSearcherApp {
+    private static final String BOOKS_XML = "books.xml";
+    private static final String BOOKS_SNAPSHOT = "books.snapshot";
+
     public static void main(String[] args) throws Exception {
-        IBookLoader loader = new BookLoader();
-        List<IBook> books = loader.loadBooks("books.xml");
-        IBookSearcherBackend backend = new BookSearcherBackend(); //can delete books if merging
-        for(IBook book : books) backend.addBook(book);
+        boolean parallel = Arrays.asList(args).contains("--parallel");
+        // keep the catalog in direct memory instead of on the heap
+        boolean offHeap = Arrays.asList(args).contains("--off-heap");
+        IBookSearcherBackend backend = load(loaded -> loaded,
+                offHeap ? OffHeapBookStore::new : BookColumns::new, parallel);
         IBookSearcherFrontend frontend = new BookFrontend(backend);
         frontend.runCommandLoop();
     }
-}
 
+    /**
+     * load the catalog, from the snapshot when it is fresh and from the xml otherwise; the books
+     * are streamed straight into the store, the catalog never exists as a list of book objects
+     * @param wrap puts the loaded backend behind the backend the caller wants
+     * @param stores creates the empty store the books are loaded into
+     * @param parallel true to parse the xml in chunks on all cores
+     * @return the loaded backend
+     * @throws IllegalStateException if the xml cannot be parsed, no snapshot is written then
+     */
+    static IBookSearcherBackend load(Function<BookSearcherBackend, IBookSearcherBackend> wrap,
+            Supplier<IBookStore> stores, boolean parallel) throws IOException {
+        return load(wrap, stores, parallel, BOOKS_XML, BOOKS_SNAPSHOT);
+    }
+
+    /**
+     * load the catalog of the given files, see load(wrap, stores, parallel)
+     * @param xmlPath the xml catalog
+     * @param snapshotPath the snapshot of the xml catalog, rewritten whenever the xml is loaded
+     */
+    static IBookSearcherBackend load(Function<BookSearcherBackend, IBookSearcherBackend> wrap,
+            Supplier<IBookStore> stores, boolean parallel, String xmlPath, String snapshotPath)
+            throws IOException {
+        BookSearcherBackend backend = loadSnapshot(stores, xmlPath, snapshotPath);
+        if (backend == null) {
+            backend = loadXml(stores, parallel, xmlPath, snapshotPath);
+        }
+        return wrap.apply(backend);
+    }
+
+    /**
+     * warm start from the binary snapshot of the last xml load, books and indexes
+     * @param stores creates the empty store the books are loaded into
+     * @param xmlPath the xml catalog the snapshot has to match
+     * @param snapshotPath the snapshot
+     * @return the loaded backend, null if the snapshot is missing, stale or corrupt
+     */
+    private static BookSearcherBackend loadSnapshot(Supplier<IBookStore> stores, String xmlPath,
+            String snapshotPath) {
+        SnapshotBookLoader loader = new SnapshotBookLoader(xmlPath);
+        if (!loader.isFresh(snapshotPath)) {
+            return null;
+        }
+        try {
+            return loader.loadBackend(snapshotPath, stores.get());
+        } catch (IOException | IllegalStateException e) {
+            return null;
+        }
+    }
+
+    /**
+     * cold start from the xml, writing a fresh snapshot while the books are loaded; the snapshot
+     * only replaces the old one once the whole xml has been parsed and indexed
+     * @param stores creates the empty store the books are loaded into
+     * @param parallel true to parse the xml in chunks on all cores
+     * @param xmlPath the xml catalog
+     * @param snapshotPath where the snapshot of the catalog is written
+     * @return the loaded backend
+     */
+    private static BookSearcherBackend loadXml(Supplier<IBookStore> stores, boolean parallel,
+            String xmlPath, String snapshotPath) throws IOException {
+        IBookStore store = stores.get();
+        try (BookSnapshotWriter snapshot = new BookSnapshotWriter(snapshotPath, xmlPath)) {
+            // books without a title are never indexed, neither store nor snapshot keeps them
+            Consumer<IBook> sink = book -> {
+                if (book.getTitle() != null) {
+                    store.add(book);
+                    snapshot.accept(book);
+                }
+            };
+            if (parallel) {
+                // parse chunks of the xml on all cores, then merge in file order
+                new ParallelBookLoader().loadBooks(xmlPath, sink);
+            } else {
+                // the xml is read as a stream, the snapshot is written while it is read
+                new StreamingBookLoader().loadBooks(xmlPath, sink);
+            }
+            // the indexes are built in one bulk pass once the whole catalog is parsed
+            BookSearcherBackend backend = new BookSearcherBackend(store);
+            snapshot.writeIndexes(backend);
+            snapshot.commit();
+            return backend;
+        }
+    }
+}
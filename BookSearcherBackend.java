@@ -1,4 +1,8 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.*;
+import java.util.function.IntPredicate;
 
 /**
  * BookSearcherBackend implements IBookSearcherBackend interface
@@ -6,24 +10,78 @@ import java.util.*;
  */
 @SuppressWarnings("all")
 public class BookSearcherBackend implements IBookSearcherBackend{
-    // TreeMap class for searching and retrieve the database by mapping titles and Book objects
+    // TreeMap class for searching and retrieve the database by mapping title words and Book objects
     protected IRedBlackTreeSortedSets<String, List<IBook>> titleTree;
-    // TreeMap class for searching and retrieve the database by mapping ratings and Book objects
-    protected IRedBlackTreeSortedSets<Double, List<IBook>> ratingTree;
+    // ratings * 100 mapped to the ids of the books with that rating, no boxed Double keys
+    protected RatingIndex ratingIndex;
+    // language bitmaps by book id that the filters run on, with the store's page, rating and date columns
+    protected BookBitmapIndex filterIndex;
+    // publication dates in epoch days mapped to book ids, sorted for range queries
+    protected DateIndex dateIndex;
+    // every word of every title mapped to the ids of the books containing it
+    protected InvertedIndex titleIndex;
+    // the same two structures over the words of the author lists and of the publishers
+    protected IRedBlackTreeSortedSets<String, List<IBook>> authorTree;
+    protected InvertedIndex authorIndex;
+    protected IRedBlackTreeSortedSets<String, List<IBook>> publisherTree;
+    protected InvertedIndex publisherIndex;
+    // bookID and ISBN-13 of every book mapped to its book id, for exact lookups
+    protected LongIntHashMap bookIdIndex;
+    protected LongIntHashMap isbnIndex;
+    // fields of all books in the order they were added, addressed by book id
+    protected IBookStore store;
     private int booknumber;
 
     /**
      * use it while merging
      */
     public BookSearcherBackend() {
-        this.titleTree =  new RedBlackTreeSortedSets<>();
-        this.ratingTree = new RedBlackTreeSortedSets<>();
+        this(new BookColumns());
+    }
+
+    /**
+     * @param store where the fields of the books are kept, books already in it are indexed right
+     * away in one bulk pass, so a catalog can be streamed into the store without ever being a
+     * list of book objects; it must only hold books with a title
+     */
+    public BookSearcherBackend(IBookStore store) {
+        this(store, true);
+    }
+
+    /**
+     * rebuild the indexes over the books already in the store from what writeIndexes wrote,
+     * no field is tokenized and no title is sorted again
+     * @param store where the fields of the books are kept, filled in the order they were indexed
+     * @param indexes the index section of a snapshot
+     * @throws IOException if the section cannot be read
+     */
+    public BookSearcherBackend(IBookStore store, DataInput indexes) throws IOException {
+        this(store, false);
+        readIndexes(indexes);
+    }
+
+    private BookSearcherBackend(IBookStore store, boolean index) {
+        this.titleTree =  new RedBlackTreeSortedSets<>(true);
+        this.ratingIndex = new RatingIndex();
+        this.dateIndex = new DateIndex();
+        this.filterIndex = new BookBitmapIndex(store);
+        this.titleIndex = new InvertedIndex();
+        this.authorTree = new RedBlackTreeSortedSets<>();
+        this.authorIndex = new InvertedIndex();
+        this.publisherTree = new RedBlackTreeSortedSets<>();
+        this.publisherIndex = new InvertedIndex();
+        this.bookIdIndex = new LongIntHashMap();
+        this.isbnIndex = new LongIntHashMap();
+        this.store = store;
         this.booknumber = 0;
+        if(index && store.size() != 0){
+            indexStore();
+        }
     }
 
 
     /**
-     * add books to titleTree and ratingTree
+     * add books to the title, author and publisher indexes and to ratingIndex
      * @param book book object being added
      */
     @Override
@@ -34,19 +92,276 @@ public class BookSearcherBackend implements IBookSearcherBackend{
         if(book == null || book.getTitle() == null){
             return;
         }
-        List<IBook> lt = new LinkedList<>();
-        lt.add(book);
-
+        int id = store.add(book);
         this.booknumber++;
-        //use first word as title key rather than the entire title
-        //since the book obj also got the entire title
-        String[] s = book.getTitle().split(" ");
-        String firstWord = s[0];
-        //adjust to the first word by the request of AE
-        String target = firstWord.toLowerCase();
-        //based on AE, change from book object to a lt while inserting
-        titleTree.insert(target, lt);
-        ratingTree.insert(book.getRating(), lt);
+        // every word of the title is a key, not only the first one
+        index(titleIndex, titleTree, id, book.getTitle());
+        index(authorIndex, authorTree, id, book.getAuthor());
+        index(publisherIndex, publisherTree, id, book.getPublisher());
+        indexKeys(id, book);
+        ratingIndex.add(book.getRating(), id);
+        dateIndex.add(book.getPublicationDate(), id);
+        filterIndex.add(id, book);
+    }
+
+    /**
+     * index every word of a field of the book in the word index and in the tree
+     * @param index word index of the field
+     * @param tree tree of the field
+     * @param id book id
+     * @param text the field, nothing is indexed for null
+     */
+    private void index(InvertedIndex index, IRedBlackTreeSortedSets<String, List<IBook>> tree,
+            int id, String text) {
+        if(text == null){
+            return;
+        }
+        TitleTokenizer tokenizer = TitleTokenizer.get().reset(text);
+        while (tokenizer.next()) {
+            // null for a word already seen earlier in the same field
+            String term = index.addTerm(id, tokenizer);
+            if(term != null){
+                tree.insert(term, bucket(id));
+            }
+        }
+    }
+
+    /**
+     * index the bookID and the ISBNs of the book, the first book with a key keeps it
+     * @param id book id
+     * @param book the book
+     */
+    private void indexKeys(int id, IBook book) {
+        if(book.getBookId() >= 0 && bookIdIndex.get(book.getBookId()) == LongIntHashMap.NONE){
+            bookIdIndex.put(book.getBookId(), id);
+        }
+        long isbn13 = book.getIsbn13();
+        if(isbn13 >= 0 && isbnIndex.get(isbn13) == LongIntHashMap.NONE){
+            isbnIndex.put(isbn13, id);
+        }
+        // the ISBN-10 is normally the same book as the ISBN-13, but not always in this catalog
+        long isbn10 = Isbn.toIsbn13(book.getIsbn());
+        if(isbn10 >= 0 && isbnIndex.get(isbn10) == LongIntHashMap.NONE){
+            isbnIndex.put(isbn10, id);
+        }
+    }
+
+    /**
+     * add a whole catalog at once, into an empty backend the words are grouped first and the
+     * trees are built in one O(n) pass instead of one insert per word; the books are sorted once
+     * by title, so every bucket is filled in order by appends. The indexes are trimmed
+     * once the catalog is in, later single books grow them again
+     * @param books book objects being added, in order
+     */
+    @Override
+    public void addBooks(List<IBook> books) {
+        if(this.booknumber != 0){
+            for (IBook book : books) {
+                addBook(book);
+            }
+            return;
+        }
+        for (IBook book : books) {
+            if(book != null && book.getTitle() != null){
+                store.add(book);
+            }
+        }
+        indexStore();
+    }
+
+    /**
+     * index every book of the store in one bulk pass, the store's ids are the positions the
+     * books were added in and none of them is indexed yet
+     */
+    private void indexStore() {
+        int count = store.size();
+        this.booknumber = count;
+        String[] titles = new String[count];
+        List<List<String>> titleWords = new ArrayList<>(count);
+        List<List<String>> authorWords = new ArrayList<>(count);
+        List<List<String>> publisherWords = new ArrayList<>(count);
+        for (int id = 0; id < count; id++) {
+            // a view, the fields are read from the store
+            IBook book = store.get(id);
+            titles[id] = book.getTitle();
+            titleWords.add(terms(titleIndex, id, titles[id]));
+            authorWords.add(terms(authorIndex, id, book.getAuthor()));
+            publisherWords.add(terms(publisherIndex, id, book.getPublisher()));
+            indexColumns(id, book);
+        }
+        // every date is in, sorted once
+        dateIndex.flush();
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        // stable, books with the same title stay in id order, the order of the buckets
+        Arrays.sort(order, (a, b) -> titles[a].compareTo(titles[b]));
+        bulkLoad(titleTree, order, titleWords);
+        bulkLoad(authorTree, order, authorWords);
+        bulkLoad(publisherTree, order, publisherWords);
+        trim();
+    }
+
+    /**
+     * index the fields of a book that need no words: its keys, rating, date and filter columns
+     * @param id book id
+     * @param book the book
+     */
+    private void indexColumns(int id, IBook book) {
+        indexKeys(id, book);
+        ratingIndex.add(book.getRating(), id);
+        dateIndex.append(book.getPublicationDate(), id);
+        filterIndex.add(id, book);
+    }
+
+    /**
+     * loading is finished, drop the spare capacity the posting lists grew
+     */
+    private void trim() {
+        titleIndex.trim();
+        authorIndex.trim();
+        publisherIndex.trim();
+        ratingIndex.trim();
+        store.trim();
+    }
+
+    /**
+     * write what indexing a catalog costs the most to rebuild: for the title, author and publisher
+     * words, every word in order and the ids of its books in bucket order. The other indexes are
+     * filled from the book fields in one cheap pass when they are read back
+     * @param out where the index section goes
+     * @throws IOException if it cannot be written
+     */
+    public void writeIndexes(DataOutput out) throws IOException {
+        writeWords(out, titleTree);
+        writeWords(out, authorTree);
+        writeWords(out, publisherTree);
+    }
+
+    private static void writeWords(DataOutput out, IRedBlackTreeSortedSets<String, List<IBook>> tree)
+            throws IOException {
+        List<String> terms = new ArrayList<>();
+        for (String term : tree) {
+            terms.add(term);
+        }
+        out.writeInt(terms.size());
+        for (String term : terms) {
+            List<?> books = tree.search(term);
+            out.writeUTF(term);
+            out.writeInt(books.size());
+            for (Object book : books) {
+                out.writeInt(((BookView) book).getId());
+            }
+        }
+    }
+
+    /**
+     * fill every index from an index section written by writeIndexes for the books in the store
+     */
+    private void readIndexes(DataInput in) throws IOException {
+        int count = store.size();
+        this.booknumber = count;
+        readWords(in, titleIndex, titleTree, count);
+        readWords(in, authorIndex, authorTree, count);
+        readWords(in, publisherIndex, publisherTree, count);
+        for (int id = 0; id < count; id++) {
+            indexColumns(id, store.get(id));
+        }
+        dateIndex.flush();
+        trim();
+    }
+
+    private void readWords(DataInput in, InvertedIndex index,
+            IRedBlackTreeSortedSets<String, List<IBook>> tree, int count) throws IOException {
+        int size = in.readInt();
+        List<String> terms = new ArrayList<>(size);
+        List<List<IBook>> data = new ArrayList<>(size);
+        for (int t = 0; t < size; t++) {
+            String term = in.readUTF();
+            int[] ids = new int[in.readInt()];
+            BookBucket bucket = new BookBucket(store);
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = in.readInt();
+                if(ids[i] < 0 || ids[i] >= count){
+                    throw new IOException("book id " + ids[i] + " of " + term + " is not in the store");
+                }
+                bucket.add(ids[i]);
+            }
+            // the bucket is in title order, the posting list wants ascending ids
+            Arrays.sort(ids);
+            for (int id : ids) {
+                index.addTerm(id, term);
+            }
+            bucket.trim();
+            terms.add(term);
+            data.add(bucket);
+        }
+        tree.bulkLoad(terms, data);
+    }
+
+    /**
+     * index every word of a field of the book in the word index only
+     * @param index word index of the field
+     * @param id book id
+     * @param text the field, nothing is indexed for null
+     * @return the words new to the book, in the order they appear
+     */
+    private List<String> terms(InvertedIndex index, int id, String text) {
+        if(text == null){
+            return Collections.emptyList();
+        }
+        List<String> terms = new ArrayList<>();
+        TitleTokenizer tokenizer = TitleTokenizer.get().reset(text);
+        while (tokenizer.next()) {
+            String term = index.addTerm(id, tokenizer);
+            if(term != null){
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * build the tree of a field from the words of every book
+     * @param tree the empty tree
+     * @param order book ids ordered by title
+     * @param words the words of every book, by id
+     */
+    private void bulkLoad(IRedBlackTreeSortedSets<String, List<IBook>> tree, Integer[] order,
+            List<List<String>> words) {
+        Map<String, BookBucket> buckets = new HashMap<>();
+        for (int i : order) {
+            for (String term : words.get(i)) {
+                BookBucket bucket = buckets.get(term);
+                if(bucket == null){
+                    buckets.put(term, bucket(i));
+                } else {
+                    bucket.add(i);
+                }
+            }
+        }
+        List<String> terms = new ArrayList<>(buckets.keySet());
+        Collections.sort(terms);
+        List<List<IBook>> data = new ArrayList<>(terms.size());
+        for (String term : terms) {
+            BookBucket bucket = buckets.get(term);
+            // already in order, trim only checks it
+            bucket.trim();
+            data.add(bucket);
+        }
+        tree.bulkLoad(terms, data);
+    }
+
+    /**
+     * every key gets its own bucket, the tree appends later books with the same key into it,
+     * a book is never added twice under one word so the bucket appends without checking; the
+     * bucket keeps only the ids and puts them in the order the tree searches return
+     * @param id first book of the bucket
+     * @return a new list holding the book
+     */
+    private BookBucket bucket(int id) {
+        return new BookBucket(store, id);
     }
 
     /**
@@ -59,45 +374,218 @@ public class BookSearcherBackend implements IBookSearcherBackend{
     }
 
     /**
-     * search all book objects in database matched with the providing String title, it can be the first word of the title
+     * search all book objects in database whose title contains every word of the providing String,
+     * the words can appear anywhere in the title
      * no such element of book obj then return null
-     * @param word title in the
-     * @return list of all books matched with the word searching for
+     * @param word one or more title words
+     * @return list of all books matched with the words searching for, in the order they were added
      */
     @Override
     public List<IBook> searchByTitleWord(String word) {
-        // no reason to search for an empty title
-        if(word == null){
+        return searchWords(titleIndex, word);
+    }
+
+    /**
+     * search all book objects in database having a title word that starts with the prefix
+     * no such element of book obj then return null
+     * @param prefix start of a title word
+     * @return list of all matched books, each book only once
+     */
+    @Override
+    public List<IBook> searchByTitlePrefix(String prefix) {
+        return searchPrefix(titleTree, prefix);
+    }
+
+    /**
+     * search all book objects in database whose authors contain every word of the providing
+     * String, e.g. a last name or a full name
+     * no such element of book obj then return null
+     * @param name one or more author name words
+     * @return list of all matched books, in the order they were added
+     */
+    @Override
+    public List<IBook> searchByAuthor(String name) {
+        return searchWords(authorIndex, name);
+    }
+
+    /**
+     * search all book objects in database having an author name word that starts with the prefix
+     * no such element of book obj then return null
+     * @param prefix start of an author name word
+     * @return list of all matched books, each book only once
+     */
+    @Override
+    public List<IBook> searchByAuthorPrefix(String prefix) {
+        return searchPrefix(authorTree, prefix);
+    }
+
+    /**
+     * search all book objects in database whose publisher contains every word of the providing
+     * String
+     * no such element of book obj then return null
+     * @param name one or more publisher name words
+     * @return list of all matched books, in the order they were added
+     */
+    @Override
+    public List<IBook> searchByPublisher(String name) {
+        return searchWords(publisherIndex, name);
+    }
+
+    /**
+     * search all book objects in database having a publisher name word that starts with the prefix
+     * no such element of book obj then return null
+     * @param prefix start of a publisher name word
+     * @return list of all matched books, each book only once
+     */
+    @Override
+    public List<IBook> searchByPublisherPrefix(String prefix) {
+        return searchPrefix(publisherTree, prefix);
+    }
+
+    /**
+     * look up a book by the bookID column of the catalog
+     * @param bookId the bookID
+     * @return the book, null if no book has the bookID
+     */
+    @Override
+    public IBook getBookById(int bookId) {
+        int id = bookIdIndex.get(bookId);
+        return id == LongIntHashMap.NONE ? null : store.get(id);
+    }
+
+    /**
+     * look up a book by its ISBN-10 or ISBN-13
+     * @param isbn the ISBN, hyphens are ignored
+     * @return the book, null if no book has the ISBN
+     */
+    @Override
+    public IBook getBookByIsbn(String isbn) {
+        long key = Isbn.toIsbn13(isbn);
+        if(key == Isbn.NONE){
             return null;
         }
-        String[] s = word.split(" ");
-        String firstWord = s[0];
-        //adjust to the first word by the request of AE
-        String target = firstWord.toLowerCase();
-        //no key for that book after searching
-        ArrayList<IBook> result = new ArrayList<>();
-        LinkedList<IBook> linkedList;
+        int id = isbnIndex.get(key);
+        return id == LongIntHashMap.NONE ? null : store.get(id);
+    }
+
+    /**
+     * search all book objects in database published between the two days
+     * no such element of book obj then return null
+     * @param fromDay first day in days since 1970-01-01, inclusive
+     * @param toDay last day in days since 1970-01-01, inclusive
+     * @return list of all books in the range, earliest first
+     */
+    @Override
+    public List<IBook> searchByPublicationDate(int fromDay, int toDay) {
+        return searchByPublicationDate(fromDay, toDay, new BookFilter());
+    }
 
-        try{
-            linkedList = (LinkedList<IBook>) titleTree.search(target);
-        }catch(NoSuchElementException e){
+    /**
+     * search all book objects in database published between the two days that pass the filter
+     * no such element of book obj then return null
+     * @param fromDay first day in days since 1970-01-01, inclusive
+     * @param toDay last day in days since 1970-01-01, inclusive
+     * @param filter the filters to apply while the books are collected
+     * @return list of the matching books, earliest first
+     */
+    @Override
+    public List<IBook> searchByPublicationDate(int fromDay, int toDay, BookFilter filter) {
+        PrimitiveIterator.OfInt ids = dateIndex.range(fromDay, toDay);
+        if(!ids.hasNext()){
             return null;
         }
-
-        //got the matching key and books
-        for (IBook book :linkedList) {
-            String[] titleCheck = book.getTitle().split(" ");
-            String firstWordTitle = titleCheck[0].toLowerCase();
-            //double-check the title to match the first word input from users
-            if(!firstWordTitle.contains(target)){
-                continue;
+        IntPredicate allowed = filterIndex.matching(filter);
+        ArrayList<IBook> result = new ArrayList<>();
+        int limit = filter.getLimit();
+        while (ids.hasNext() && result.size() < limit) {
+            int id = ids.nextInt();
+            if(allowed == null || allowed.test(id)){
+                result.add(store.get(id));
             }
-            result.add(book);
         }
+        return result;
+    }
 
+    /**
+     * the books whose field contains every word
+     * @param index word index of the field
+     * @param words one or more words
+     * @return the books in the order they were added, null if there are none
+     */
+    private List<IBook> searchWords(InvertedIndex index, String words) {
+        // no reason to search for an empty field
+        if(words == null){
+            return null;
+        }
+        PostingList ids = index.search(words);
+        //no key for that book after searching
+        if(ids.size() == 0){
+            return null;
+        }
+        ArrayList<IBook> result = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            result.add(store.get(ids.get(i)));
+        }
         return result;
     }
 
+    /**
+     * the books having a word of the field that starts with the prefix
+     * @param tree tree of the field
+     * @param prefix start of a word
+     * @return the books, each only once, null if there are none
+     */
+    private List<IBook> searchPrefix(IRedBlackTreeSortedSets<String, List<IBook>> tree,
+            String prefix) {
+        if(prefix == null){
+            return null;
+        }
+        // the same normalization the words went through
+        String normalized = TitleTokenizer.normalize(prefix);
+        if(normalized.isEmpty()){
+            return null;
+        }
+        return merge(tree.searchPrefix(normalized));
+    }
+
+    /**
+     * search all book objects in database having a title word that contains the substring
+     * no such element of book obj then return null
+     * @param substring part of a title word
+     * @return list of all matched books, each book only once
+     */
+    @Override
+    public List<IBook> searchByTitleSubstring(String substring) {
+        if(substring == null){
+            return null;
+        }
+        // the same normalization the title words went through
+        String normalized = TitleTokenizer.normalize(substring);
+        if(normalized.isEmpty()){
+            return null;
+        }
+        return merge(titleTree.searchSubstring(normalized));
+    }
+
+    /**
+     * merge the buckets of several words, a book with more than one matching word is only kept
+     * once, views of the same book are equal
+     * @param buckets buckets returned by a tree
+     * @return merged list, null if there are no books
+     */
+    private List<IBook> merge(List<List<IBook>> buckets) {
+        Set<IBook> seen = new HashSet<>();
+        ArrayList<IBook> result = new ArrayList<>();
+        for (List<IBook> bucket : buckets) {
+            for (IBook book : bucket) {
+                if (seen.add(book)) {
+                    result.add(book);
+                }
+            }
+        }
+        return result.isEmpty() ? null : result;
+    }
+
     /**
      * search all book objects in database matched with the providing double rate
      * @param rate rate integer being provided to search
@@ -105,39 +593,124 @@ public class BookSearcherBackend implements IBookSearcherBackend{
      */
     @Override
     public List<IBook> searchByRating(double rate) {
-//        //in case the change from AE red version, which means I should add book rather than a list to the tree
-//        //no key for that book after searching
-//        ArrayList<IBook> result;
-//        try{
-//            result = (ArrayList<IBook>)ratingTree.search(rate);
-//        }catch(NoSuchElementException e){
-//            return null;
-//        }
-//        //got the matching key and books
-//        result = (ArrayList<IBook>)ratingTree.search(rate);
-//        ArrayList<IBook> finals = new ArrayList<>();
-//        for (IBook book: result) {
-//            finals.add(book);
-//        }
-//        return finals;
-
-
         //no key for that book after searching
-        ArrayList<IBook> result = new ArrayList<>();
-        LinkedList<IBook> linkedList;
-        try{
-            linkedList = (LinkedList<IBook>) ratingTree.search(rate);
-        }catch(NoSuchElementException e){
+        PostingList ids = ratingIndex.get(rate);
+        if(ids == null){
             return null;
         }
+        ArrayList<IBook> result = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            result.add(store.get(ids.get(i)));
+        }
+        return result;
+    }
 
-        //got the matching key and books
-        for(IBook b: linkedList){
-            //double check for the rate
-            if(b.getRating()!=rate){
-                continue;
+    /**
+     * search all book objects in database whose rating is between min and max
+     * no such element of book obj then return null
+     * @param min lowest rating, inclusive
+     * @param max highest rating, inclusive
+     * @return list of all books in the range, lowest rating first
+     */
+    @Override
+    public List<IBook> searchByRatingRange(double min, double max) {
+        ArrayList<IBook> result = new ArrayList<>();
+        Iterator<IBook> it = ratingRangeIterator(min, max);
+        while (it.hasNext()) {
+            result.add(it.next());
+        }
+        return result.isEmpty() ? null : result;
+    }
+
+    /**
+     * iterate all book objects in database whose rating is between min and max, the rating index
+     * is only walked as far as the caller reads
+     * @param min lowest rating, inclusive
+     * @param max highest rating, inclusive
+     * @return lazy iterator over the books in the range, lowest rating first
+     */
+    @Override
+    public Iterator<IBook> ratingRangeIterator(double min, double max) {
+        PrimitiveIterator.OfInt ids = ratingIndex.range(min, max);
+        return new Iterator<IBook>() {
+            @Override
+            public boolean hasNext() {
+                return ids.hasNext();
             }
-            result.add(b);
+
+            @Override
+            public IBook next() {
+                return store.get(ids.nextInt());
+            }
+        };
+    }
+
+    /**
+     * search the k best book objects in database whose title contains every word of the
+     * providing String
+     * no such element of book obj then return null
+     * @param word one or more title words
+     * @param k maximum number of books returned
+     * @param ranking order the books are ranked by
+     * @return list of at most k matched books, best first
+     * @throws IllegalArgumentException if k is not positive
+     */
+    @Override
+    public List<IBook> searchByTitleWord(String word, int k, BookRanking ranking) {
+        if(k < 1){
+            throw new IllegalArgumentException("k must be positive");
+        }
+        if(word == null){
+            return null;
+        }
+        PostingList ids = titleIndex.search(word);
+        // never hold more slots than there are matches
+        TopKCollector top = new TopKCollector(Math.max(1, Math.min(k, ids.size())));
+        for (int i = 0; i < ids.size(); i++) {
+            int id = ids.get(i);
+            top.offer(id, ranking.score(store.getRating(id), store.getTotalRating(id)));
+        }
+        return toBooks(top);
+    }
+
+    /**
+     * search the k best book objects in database whose rating is between min and max
+     * no such element of book obj then return null
+     * @param min lowest rating, inclusive
+     * @param max highest rating, inclusive
+     * @param k maximum number of books returned
+     * @param ranking order the books are ranked by
+     * @return list of at most k books in the range, best first
+     * @throws IllegalArgumentException if k is not positive
+     */
+    @Override
+    public List<IBook> searchByRatingRange(double min, double max, int k, BookRanking ranking) {
+        if(k < 1){
+            throw new IllegalArgumentException("k must be positive");
+        }
+        // the range holds at most every book, a k meaning "all" must not size the heap
+        TopKCollector top = new TopKCollector(Math.max(1, Math.min(k, store.size())));
+        PrimitiveIterator.OfInt ids = ratingIndex.range(min, max);
+        while (ids.hasNext()) {
+            int id = ids.nextInt();
+            top.offer(id, ranking.score(store.getRating(id), store.getTotalRating(id)));
+        }
+        return toBooks(top);
+    }
+
+    /**
+     * turn the ids kept by a top-k collector into books
+     * @param top collector holding the best ids
+     * @return the books best first, null if the collector is empty
+     */
+    private List<IBook> toBooks(TopKCollector top) {
+        if(top.size() == 0){
+            return null;
+        }
+        int[] ids = top.drain();
+        ArrayList<IBook> result = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            result.add(store.get(id));
         }
         return result;
     }
@@ -157,8 +730,13 @@ public class BookSearcherBackend implements IBookSearcherBackend{
             throw new IllegalArgumentException("arg cannot be a null lt");
         }
         ArrayList<IBook> finals = new ArrayList<>();
+        // look the code up once, then every book is an int compare
+        int languageId = Book.LANGUAGES.find(lan);
+        if(languageId == StringDictionary.NONE){
+            return finals;
+        }
         for (IBook book: lt) {
-            if(book!= null && book.isSameLanguage(lan)){
+            if(book!= null && book.getLanguageId() == languageId){
                 finals.add(book);
             }
         }
@@ -205,5 +783,113 @@ public class BookSearcherBackend implements IBookSearcherBackend{
         }
         return finals;
     }
-}
 
+    /**
+     * apply every filter of the providing BookFilter in one pass over the list of books
+     * @param filter the filters to apply and the result limit
+     * @param lt list book objects
+     * @return finals list of the books passing every filter, at most filter.getLimit() books
+     */
+    @Override
+    public List<IBook> filter(BookFilter filter, List<IBook> lt) {
+        if(filter == null){
+            throw new IllegalArgumentException("arg cannot be a null filter");
+        }
+        ArrayList<IBook> finals = new ArrayList<>();
+        if(lt == null){
+            return finals;
+        }
+        int limit = filter.getLimit();
+        for (IBook book: lt) {
+            if(filter.test(book)){
+                finals.add(book);
+                if(finals.size() == limit){
+                    break;
+                }
+            }
+        }
+        return finals;
+    }
+
+    /**
+     * search all book objects in database whose title contains every word of the providing String
+     * and that pass the filter, the filter is the AND of the bitmap indexes checked per matching id
+     * no such element of book obj then return null
+     * @param word one or more title words
+     * @param filter the filters to apply and the result limit
+     * @return list of the matched books passing every filter, in the order they were added
+     */
+    @Override
+    public List<IBook> searchByTitleWord(String word, BookFilter filter) {
+        if(word == null){
+            return null;
+        }
+        PostingList ids = titleIndex.search(word);
+        if(ids.size() == 0){
+            return null;
+        }
+        IntPredicate allowed = filterIndex.matching(filter);
+        ArrayList<IBook> result = new ArrayList<>();
+        int limit = filter.getLimit();
+        for (int i = 0; i < ids.size() && result.size() < limit; i++) {
+            int id = ids.get(i);
+            if(allowed == null || allowed.test(id)){
+                result.add(store.get(id));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * search all book objects in database matched with the providing double rate that pass the
+     * filter, the bucket of the rating is ANDed with the bitmap indexes of the filter
+     * no such element of book obj then return null
+     * @param rate rate being provided to search
+     * @param filter the filters to apply and the result limit
+     * @return list of the matched books passing every filter
+     */
+    @Override
+    public List<IBook> searchByRating(double rate, BookFilter filter) {
+        PostingList ids = ratingIndex.get(rate);
+        if(ids == null){
+            return null;
+        }
+        IntPredicate allowed = filterIndex.matching(filter);
+        ArrayList<IBook> result = new ArrayList<>();
+        int limit = filter.getLimit();
+        for (int i = 0; i < ids.size() && result.size() < limit; i++) {
+            int id = ids.get(i);
+            if(allowed == null || allowed.test(id)){
+                result.add(store.get(id));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * search all book objects in database whose rating is between min and max that pass the
+     * filter, the rating index is only walked until the filter's limit is reached
+     * no such element of book obj then return null
+     * @param min lowest rating, inclusive
+     * @param max highest rating, inclusive
+     * @param filter the filters to apply and the result limit
+     * @return list of the matched books passing every filter, lowest rating first
+     */
+    @Override
+    public List<IBook> searchByRatingRange(double min, double max, BookFilter filter) {
+        PrimitiveIterator.OfInt ids = ratingIndex.range(min, max);
+        if(!ids.hasNext()){
+            return null;
+        }
+        IntPredicate allowed = filterIndex.matching(filter);
+        ArrayList<IBook> result = new ArrayList<>();
+        int limit = filter.getLimit();
+        while (ids.hasNext() && result.size() < limit) {
+            int id = ids.nextInt();
+            if(allowed == null || allowed.test(id)){
+                result.add(store.get(id));
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,137 @@
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * BookSnapshotWriter writes the binary catalog snapshot read by SnapshotBookLoader. Books are
+ * appended one at a time while the xml is loaded, so it can sit next to the store as a second
+ * sink, and the index section of the backend built over them follows the last book. The snapshot
+ * is written to a temporary file and only moved into place by commit(), once the whole load
+ * succeeded; close() deletes the temporary file of a snapshot that was never committed, so a
+ * reader never sees a half written snapshot nor one of a failed load.
+ */
+public class BookSnapshotWriter implements Consumer<IBook>, Closeable {
+
+    private final Path target;
+    private final Path temp;
+    private final Path source;
+    private final FileChannel channel;
+    private final CheckedOutputStream checked;
+    private final DataOutputStream out;
+    private int count;
+    private boolean committed;
+
+    /**
+     * @param snapshotPath where the finished snapshot is stored
+     * @param sourcePath the xml file the books are being loaded from
+     */
+    public BookSnapshotWriter(String snapshotPath, String sourcePath) throws IOException {
+        this.target = Paths.get(snapshotPath);
+        this.temp = Paths.get(snapshotPath + ".tmp");
+        this.source = Paths.get(sourcePath);
+        this.channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        // leave room for the header, it is filled in once the payload is complete
+        channel.position(SnapshotBookLoader.HEADER_BYTES);
+        this.checked = new CheckedOutputStream(
+                new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16), new CRC32());
+        this.out = new DataOutputStream(checked);
+    }
+
+    /**
+     * append one book to the snapshot
+     * @param book book to store
+     */
+    @Override
+    public void accept(IBook book) {
+        try {
+            writeString(book.getTitle());
+            writeString(book.getAuthor());
+            out.writeDouble(book.getRating());
+            out.writeInt(book.getNumberOfPages());
+            writeString(book.getLanguage());
+            out.writeInt(book.getTotalRating());
+            writeString(book.getPublisher());
+            out.writeInt(book.getBookId());
+            writeString(book.getIsbn());
+            out.writeLong(book.getIsbn13());
+            out.writeInt(book.getPublicationDate());
+            count++;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * append the index section after the last book
+     * @param backend the backend built over exactly the books written to the snapshot
+     */
+    public void writeIndexes(BookSearcherBackend backend) throws IOException {
+        backend.writeIndexes(out);
+    }
+
+    /**
+     * finish the payload, write the header and move the snapshot into place, only to be called
+     * once every book has been loaded without an error
+     */
+    public void commit() throws IOException {
+        out.flush();
+        long payloadLength = channel.position() - SnapshotBookLoader.HEADER_BYTES;
+        ByteBuffer header = ByteBuffer.allocate(SnapshotBookLoader.HEADER_BYTES);
+        header.putInt(SnapshotBookLoader.MAGIC);
+        header.putInt(SnapshotBookLoader.VERSION);
+        header.putLong(Files.size(source));
+        header.putLong(Files.getLastModifiedTime(source).toMillis());
+        header.putInt(count);
+        header.putLong(payloadLength);
+        header.putLong(checked.getChecksum().getValue());
+        header.flip();
+        channel.write(header, 0);
+        channel.force(true);
+        channel.close();
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        committed = true;
+    }
+
+    /**
+     * release the temporary file, an uncommitted snapshot is deleted and the previous one stays
+     */
+    @Override
+    public void close() throws IOException {
+        if (committed) {
+            return;
+        }
+        try {
+            channel.close();
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * write a length prefixed utf-8 string, -1 stands for null
+     */
+    private void writeString(String s) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+}
@@ -0,0 +1,136 @@
+/**
+ * BookView is the IBook of a book kept in an IBookStore. It only holds the store and the book id
+ * and reads every field from the store when it is asked for, so creating one is cheap and the
+ * catalog itself never has to exist as book objects. Views behave like the Book they were made
+ * from: same ordering, same toString.
+ */
+public class BookView implements IBook {
+    private final IBookStore store;
+    private final int id;
+
+    /**
+     * @param store store holding the book
+     * @param id id of the book in the store
+     */
+    public BookView(IBookStore store, int id) {
+        this.store = store;
+        this.id = id;
+    }
+
+    /**
+     * @return id of the book in its store
+     */
+    public int getId() {
+        return id;
+    }
+
+    @Override
+    public String getTitle() {
+        return store.getTitle(id);
+    }
+
+    @Override
+    public double getRating() {
+        return store.getRating(id);
+    }
+
+    @Override
+    public int getNumberOfPages() {
+        return store.getNumberOfPages(id);
+    }
+
+    @Override
+    public String getAuthor() {
+        return store.getAuthor(id);
+    }
+
+    @Override
+    public String getPublisher() {
+        return store.getPublisher(id);
+    }
+
+    @Override
+    public int getBookId() {
+        return store.getBookId(id);
+    }
+
+    @Override
+    public String getIsbn() {
+        return store.getIsbn(id);
+    }
+
+    @Override
+    public long getIsbn13() {
+        return store.getIsbn13(id);
+    }
+
+    @Override
+    public int getPublicationDate() {
+        return store.getPublicationDate(id);
+    }
+
+    @Override
+    public int getTotalRating() {
+        return store.getTotalRating(id);
+    }
+
+    @Override
+    public int getTotalReviews() {
+        return store.getTotalReviews(id);
+    }
+
+    @Override
+    public String getLanguage() {
+        return Book.LANGUAGES.decode(store.getLanguageId(id));
+    }
+
+    @Override
+    public int getLanguageId() {
+        return store.getLanguageId(id);
+    }
+
+    @Override
+    public Boolean isSameLanguage(String language) {
+        int languageId = Book.LANGUAGES.find(language);
+        return languageId != StringDictionary.NONE && languageId == getLanguageId();
+    }
+
+    /**
+     * the same order as Book, descending by rating
+     */
+    @Override
+    public int compareTo(IBook o) {
+        return Double.compare(o.getRating(), getRating());
+    }
+
+    /**
+     * two views are equal if they show the same book of the same store
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof BookView)) {
+            return false;
+        }
+        BookView other = (BookView) o;
+        return other.store == store && other.id == id;
+    }
+
+    @Override
+    public int hashCode() {
+        return System.identityHashCode(store) * 31 + id;
+    }
+
+    /**
+     * the same text as Book.toString
+     */
+    @Override
+    public String toString() {
+        return "Title = " + getTitle() + "\n" +
+                "Number of Pages = " + getNumberOfPages() + "\n" +
+                "Rating = " + getRating() + "\n" +
+                "Author = " + getAuthor() + "\n" +
+                "Total Rating = " + getTotalRating() + "\n" +
+                "Total Reviews = " + getTotalReviews() + "\n" +
+                "Language = " + getLanguage();
+    }
+}
@@ -0,0 +1,361 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * CachingBookSearcherBackend puts a QueryCache in front of another backend. Searches are keyed on
+ * their normalized form (sorted distinct words, lower case prefixes, the filter's
+ * description) so equivalent queries share one entry, and adding a book only drops the entries
+ * whose result the book changes. Cached results are read-only.
+ *
+ * The cache is thread safe, so wrapping a ConcurrentBookSearcherBackend gives a backend that is
+ * still safe for concurrent reads and writes.
+ */
+public class CachingBookSearcherBackend implements IBookSearcherBackend {
+    // cached books plus cached queries the default cache holds
+    private static final long DEFAULT_MAX_WEIGHT = 100_000;
+    // results are never null, a search without matches is cached as this list
+    private static final List<IBook> NO_MATCH = Collections.emptyList();
+
+    private final IBookSearcherBackend delegate;
+    private final QueryCache cache;
+
+    public CachingBookSearcherBackend(IBookSearcherBackend delegate) {
+        this(delegate, DEFAULT_MAX_WEIGHT);
+    }
+
+    /**
+     * @param delegate backend the searches run on when they are not cached
+     * @param maxWeight the most cached queries plus cached books the cache holds
+     */
+    public CachingBookSearcherBackend(IBookSearcherBackend delegate, long maxWeight) {
+        this.delegate = delegate;
+        this.cache = new QueryCache(maxWeight);
+    }
+
+    /**
+     * @return the cache, for its hit and eviction statistics
+     */
+    public QueryCache getCache() {
+        return cache;
+    }
+
+    /**
+     * add the book to the backend and drop the cached results it changes
+     * @param book book object being added
+     */
+    @Override
+    public void addBook(IBook book) {
+        delegate.addBook(book);
+        cache.invalidate(book, CachingBookSearcherBackend::tags);
+    }
+
+    /**
+     * add a batch of books to the backend and drop the cached results they change
+     * @param books book objects being added, in order
+     */
+    @Override
+    public void addBooks(List<IBook> books) {
+        delegate.addBooks(books);
+        for (IBook book : books) {
+            cache.invalidate(book, CachingBookSearcherBackend::tags);
+        }
+    }
+
+    /**
+     * the tags an added book invalidates: every word and every prefix of a word of its title,
+     * author list and publisher, and its rating
+     */
+    private static Iterable<String> tags(IBook book) {
+        List<String> tags = new ArrayList<>();
+        wordTags(tags, "t:", "p:", book.getTitle());
+        wordTags(tags, "a:", "ap:", book.getAuthor());
+        wordTags(tags, "u:", "up:", book.getPublisher());
+        tags.add("r:" + ratingKey(book.getRating()));
+        return tags;
+    }
+
+    /**
+     * add the tags of every word of the field and of every prefix of a word
+     */
+    private static void wordTags(List<String> tags, String word, String prefix, String text) {
+        if (text == null) {
+            return;
+        }
+        for (String term : new TreeSet<>(TitleTokenizer.terms(text))) {
+            tags.add(word + term);
+            for (int end = 1; end <= term.length(); end++) {
+                tags.add(prefix + term.substring(0, end));
+            }
+        }
+    }
+
+    private static long ratingKey(double rating) {
+        return Math.round(rating * 100);
+    }
+
+    /**
+     * return the cached result of the key, or run the search and offer its result to the cache
+     * @param key normalized query
+     * @param tag tag of the books that change the result, null to check every added book
+     * @param affectedBy check for added books that change the result
+     * @param search the uncached search
+     * @return the result, null if no book matches
+     */
+    private List<IBook> cached(String key, String tag, Predicate<IBook> affectedBy,
+            Supplier<List<IBook>> search) {
+        List<IBook> hit = cache.get(key);
+        if (hit == null) {
+            // read the version first so a book added during the search keeps the result out
+            long version = cache.version();
+            List<IBook> result = search.get();
+            hit = result == null ? NO_MATCH : Collections.unmodifiableList(result);
+            List<String> tags = tag == null ? Collections.emptyList() : Collections.singletonList(tag);
+            cache.put(key, hit, version, tags, affectedBy);
+        }
+        return hit == NO_MATCH ? null : hit;
+    }
+
+    /**
+     * @return the distinct title words of the query in sorted order
+     */
+    private static List<String> terms(String word) {
+        return new ArrayList<>(new TreeSet<>(TitleTokenizer.terms(word)));
+    }
+
+    /**
+     * @return true if the title of the book contains every term
+     */
+    private static boolean hasTerms(IBook book, List<String> terms) {
+        return hasTerms(book.getTitle(), terms);
+    }
+
+    /**
+     * @return true if the field contains every term
+     */
+    private static boolean hasTerms(String text, List<String> terms) {
+        return text != null && TitleTokenizer.terms(text).containsAll(terms);
+    }
+
+    /**
+     * @return true if the rating of the book falls in the range, a hundredth of slack either way
+     *         covers the rounding of the rating index
+     */
+    private static boolean inRange(IBook book, double min, double max) {
+        return book.getRating() >= min - 0.01 && book.getRating() <= max + 0.01;
+    }
+
+    /**
+     * @return true if the book was published between the two days
+     */
+    private static boolean isPublished(IBook book, int fromDay, int toDay) {
+        int date = book.getPublicationDate();
+        return date != EpochDay.NONE && date >= fromDay && date <= toDay;
+    }
+
+    @Override
+    public int getNumberOfBooks() {
+        return delegate.getNumberOfBooks();
+    }
+
+    @Override
+    public List<IBook> searchByTitleWord(String word) {
+        if (word == null) {
+            return null;
+        }
+        List<String> terms = terms(word);
+        if (terms.isEmpty()) {
+            return delegate.searchByTitleWord(word);
+        }
+        return cached("title|" + terms, "t:" + terms.get(0), b -> hasTerms(b, terms),
+                () -> delegate.searchByTitleWord(word));
+    }
+
+    @Override
+    public List<IBook> searchByTitleWord(String word, int k, BookRanking ranking) {
+        if (word == null) {
+            return null;
+        }
+        List<String> terms = terms(word);
+        if (terms.isEmpty() || k < 1) {
+            return delegate.searchByTitleWord(word, k, ranking);
+        }
+        return cached("top|" + k + "|" + ranking + "|" + terms, "t:" + terms.get(0),
+                b -> hasTerms(b, terms), () -> delegate.searchByTitleWord(word, k, ranking));
+    }
+
+    @Override
+    public List<IBook> searchByTitleWord(String word, BookFilter filter) {
+        if (word == null) {
+            return null;
+        }
+        List<String> terms = terms(word);
+        if (terms.isEmpty()) {
+            return delegate.searchByTitleWord(word, filter);
+        }
+        return cached("title|" + terms + "|" + filter, "t:" + terms.get(0),
+                b -> filter.test(b) && hasTerms(b, terms),
+                () -> delegate.searchByTitleWord(word, filter));
+    }
+
+    @Override
+    public List<IBook> searchByTitlePrefix(String prefix) {
+        if (prefix == null || prefix.trim().isEmpty()) {
+            return null;
+        }
+        String p = TitleTokenizer.normalize(prefix);
+        // only books with a title word starting with the prefix carry its tag
+        return cached("prefix|" + p, "p:" + p, b -> true, () -> delegate.searchByTitlePrefix(p));
+    }
+
+    @Override
+    public List<IBook> searchByTitleSubstring(String substring) {
+        if (substring == null || substring.trim().isEmpty()) {
+            return null;
+        }
+        String s = TitleTokenizer.normalize(substring);
+        return cached("substring|" + s, null,
+                b -> TitleTokenizer.terms(b.getTitle()).stream().anyMatch(t -> t.contains(s)),
+                () -> delegate.searchByTitleSubstring(s));
+    }
+
+    @Override
+    public List<IBook> searchByAuthor(String name) {
+        if (name == null) {
+            return null;
+        }
+        List<String> terms = terms(name);
+        if (terms.isEmpty()) {
+            return delegate.searchByAuthor(name);
+        }
+        return cached("author|" + terms, "a:" + terms.get(0),
+                b -> hasTerms(b.getAuthor(), terms), () -> delegate.searchByAuthor(name));
+    }
+
+    @Override
+    public List<IBook> searchByAuthorPrefix(String prefix) {
+        if (prefix == null || prefix.trim().isEmpty()) {
+            return null;
+        }
+        String p = TitleTokenizer.normalize(prefix);
+        return cached("authorprefix|" + p, "ap:" + p, b -> true,
+                () -> delegate.searchByAuthorPrefix(p));
+    }
+
+    @Override
+    public List<IBook> searchByPublisher(String name) {
+        if (name == null) {
+            return null;
+        }
+        List<String> terms = terms(name);
+        if (terms.isEmpty()) {
+            return delegate.searchByPublisher(name);
+        }
+        return cached("publisher|" + terms, "u:" + terms.get(0),
+                b -> hasTerms(b.getPublisher(), terms), () -> delegate.searchByPublisher(name));
+    }
+
+    @Override
+    public List<IBook> searchByPublisherPrefix(String prefix) {
+        if (prefix == null || prefix.trim().isEmpty()) {
+            return null;
+        }
+        String p = TitleTokenizer.normalize(prefix);
+        return cached("publisherprefix|" + p, "up:" + p, b -> true,
+                () -> delegate.searchByPublisherPrefix(p));
+    }
+
+    /**
+     * not cached, the lookup is a single hash probe
+     */
+    @Override
+    public IBook getBookById(int bookId) {
+        return delegate.getBookById(bookId);
+    }
+
+    /**
+     * not cached, the lookup is a single hash probe
+     */
+    @Override
+    public IBook getBookByIsbn(String isbn) {
+        return delegate.getBookByIsbn(isbn);
+    }
+
+    @Override
+    public List<IBook> searchByRating(double rate) {
+        long key = ratingKey(rate);
+        return cached("rating|" + rate, "r:" + key, b -> true, () -> delegate.searchByRating(rate));
+    }
+
+    @Override
+    public List<IBook> searchByRating(double rate, BookFilter filter) {
+        long key = ratingKey(rate);
+        return cached("rating|" + rate + "|" + filter, "r:" + key, filter::test,
+                () -> delegate.searchByRating(rate, filter));
+    }
+
+    @Override
+    public List<IBook> searchByRatingRange(double min, double max) {
+        return cached("range|" + min + "|" + max, null, b -> inRange(b, min, max),
+                () -> delegate.searchByRatingRange(min, max));
+    }
+
+    @Override
+    public List<IBook> searchByRatingRange(double min, double max, int k, BookRanking ranking) {
+        return cached("toprange|" + min + "|" + max + "|" + k + "|" + ranking, null,
+                b -> inRange(b, min, max), () -> delegate.searchByRatingRange(min, max, k, ranking));
+    }
+
+    @Override
+    public List<IBook> searchByRatingRange(double min, double max, BookFilter filter) {
+        return cached("range|" + min + "|" + max + "|" + filter, null,
+                b -> filter.test(b) && inRange(b, min, max),
+                () -> delegate.searchByRatingRange(min, max, filter));
+    }
+
+    @Override
+    public List<IBook> searchByPublicationDate(int fromDay, int toDay) {
+        return cached("published|" + fromDay + "|" + toDay, null,
+                b -> isPublished(b, fromDay, toDay),
+                () -> delegate.searchByPublicationDate(fromDay, toDay));
+    }
+
+    @Override
+    public List<IBook> searchByPublicationDate(int fromDay, int toDay, BookFilter filter) {
+        return cached("published|" + fromDay + "|" + toDay + "|" + filter, null,
+                b -> filter.test(b) && isPublished(b, fromDay, toDay),
+                () -> delegate.searchByPublicationDate(fromDay, toDay, filter));
+    }
+
+    /**
+     * not cached, the walk is lazy and callers rarely read all of it
+     */
+    @Override
+    public Iterator<IBook> ratingRangeIterator(double min, double max) {
+        return delegate.ratingRangeIterator(min, max);
+    }
+
+    @Override
+    public List<IBook> getLanFilter(String lan, List<IBook> lt) {
+        return delegate.getLanFilter(lan, lt);
+    }
+
+    @Override
+    public List<IBook> getRateFilter(int numRates, List<IBook> lt) {
+        return delegate.getRateFilter(numRates, lt);
+    }
+
+    @Override
+    public List<IBook> getPagesFilter(int numPages, List<IBook> lt) {
+        return delegate.getPagesFilter(numPages, lt);
+    }
+
+    @Override
+    public List<IBook> filter(BookFilter filter, List<IBook> lt) {
+        return delegate.filter(filter, lt);
+    }
+}
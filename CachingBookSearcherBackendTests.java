@@ -0,0 +1,131 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Adding a book must drop exactly the cached results it changes: the ones tagged with one of its
+ * title words, title word prefixes or its rating, and the untagged ones whose predicate accepts
+ * it. Everything else stays cached, and a result computed before an add is never cached after it.
+ */
+public class CachingBookSearcherBackendTests {
+
+    private static CachingBookSearcherBackend backend() {
+        CachingBookSearcherBackend backend = new CachingBookSearcherBackend(new BookSearcherBackend());
+        backend.addBook(new Book("Harry Potter and the Goblet of Fire", "J.K. Rowling", 4.5, 734, "eng", 100));
+        backend.addBook(new Book("The Hobbit", "J.R.R. Tolkien", 4.3, 366, "eng", 100));
+        backend.addBook(new Book("Dune", "Frank Herbert", 3.9, 412, "eng", 100));
+        return backend;
+    }
+
+    private static Book book(String title, double rating) {
+        return new Book(title, "Someone", rating, 100, "eng", 10);
+    }
+
+    private static int size(List<IBook> books) {
+        return books == null ? 0 : books.size();
+    }
+
+    @Test
+    public void titleWordTagDropsOnlyResultsWithTheWord() {
+        CachingBookSearcherBackend backend = backend();
+        List<IBook> harry = backend.searchByTitleWord("harry");
+        List<IBook> hobbit = backend.searchByTitleWord("hobbit");
+        assertEquals(1, size(harry));
+
+        backend.addBook(book("Harry and the Hendersons", 3.1));
+        assertSame(hobbit, backend.searchByTitleWord("hobbit"));
+        assertEquals(2, size(backend.searchByTitleWord("harry")));
+        assertEquals(1, backend.getCache().getInvalidations());
+    }
+
+    @Test
+    public void titleWordTagFollowsTheTokenizer() {
+        CachingBookSearcherBackend backend = backend();
+        assertNull(backend.searchByTitleWord("cafe"));
+        // the accented title folds to the word the query was cached under
+        backend.addBook(book("Café Society", 3.5));
+        assertEquals(1, size(backend.searchByTitleWord("CAFE")));
+    }
+
+    @Test
+    public void prefixTagDropsResultsOfEveryPrefixOfAWord() {
+        CachingBookSearcherBackend backend = backend();
+        assertEquals(1, size(backend.searchByTitlePrefix("har")));
+        List<IBook> du = backend.searchByTitlePrefix("du");
+        assertEquals(1, size(du));
+
+        backend.addBook(book("Harbor Lights", 3.0));
+        assertEquals(2, size(backend.searchByTitlePrefix("har")));
+        assertSame(du, backend.searchByTitlePrefix("du"));
+        assertEquals(1, backend.getCache().getInvalidations());
+    }
+
+    @Test
+    public void ratingTagDropsResultsOfTheSameRating() {
+        CachingBookSearcherBackend backend = backend();
+        assertEquals(1, size(backend.searchByRating(4.5)));
+        List<IBook> other = backend.searchByRating(4.3);
+
+        backend.addBook(book("Another Five", 4.5));
+        assertSame(other, backend.searchByRating(4.3));
+        assertEquals(2, size(backend.searchByRating(4.5)));
+        assertEquals(1, backend.getCache().getInvalidations());
+    }
+
+    @Test
+    public void untaggedResultsAreCheckedWithTheirPredicate() {
+        CachingBookSearcherBackend backend = backend();
+        List<IBook> high = backend.searchByRatingRange(4.0, 5.0);
+        assertEquals(2, size(high));
+        List<IBook> substring = backend.searchByTitleSubstring("obbi");
+        assertEquals(1, size(substring));
+
+        // outside the range and without the substring, both stay cached
+        backend.addBook(book("Low Rated", 2.0));
+        assertSame(high, backend.searchByRatingRange(4.0, 5.0));
+        assertSame(substring, backend.searchByTitleSubstring("obbi"));
+        assertEquals(0, backend.getCache().getInvalidations());
+
+        backend.addBook(book("Well Rated", 4.2));
+        assertEquals(3, size(backend.searchByRatingRange(4.0, 5.0)));
+        assertSame(substring, backend.searchByTitleSubstring("obbi"));
+        assertEquals(1, backend.getCache().getInvalidations());
+    }
+
+    @Test
+    public void dateRangesAreCheckedWithTheirPredicate() {
+        CachingBookSearcherBackend backend = backend();
+        int from = EpochDay.of(2000, 1, 1);
+        int to = EpochDay.of(2000, 12, 31);
+        assertNull(backend.searchByPublicationDate(from, to));
+
+        backend.addBook(new Book("Undated", "Someone", 3.0, 10, "eng", 1));
+        backend.addBook(new Book("Later", "Someone", 3.0, 10, "eng", 1, null, -1, null, null,
+                EpochDay.of(2001, 1, 1)));
+        assertEquals(0, backend.getCache().getInvalidations());
+
+        backend.addBook(new Book("Millennium", "Someone", 3.0, 10, "eng", 1, null, -1, null, null,
+                EpochDay.of(2000, 12, 31)));
+        assertEquals(1, size(backend.searchByPublicationDate(from, to)));
+        assertEquals(1, backend.getCache().getInvalidations());
+    }
+
+    @Test
+    public void resultsComputedBeforeAnAddAreNotCached() {
+        QueryCache cache = new QueryCache(100);
+        List<IBook> result = Collections.singletonList(book("Old", 3.0));
+        long version = cache.version();
+        cache.invalidate(book("New", 3.0), b -> Collections.emptyList());
+        cache.put("title|[old]", result, version, Collections.singletonList("t:old"), b -> true);
+        assertNull(cache.get("title|[old]"));
+        assertEquals(0, cache.size());
+
+        cache.put("title|[old]", result, cache.version(), Collections.singletonList("t:old"), b -> true);
+        assertSame(result, cache.get("title|[old]"));
+    }
+}
@@ -0,0 +1,182 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+
+/**
+ * CatalogGenerator writes a synthetic catalog in the books.xml format that is a whole number of
+ * times larger than books.xml, for load and search benchmarks. The first copy is books.xml
+ * itself. Every further copy of a row swaps one title word for a word drawn from the whole
+ * catalog, so the vocabulary stays realistic while titles stop being exact duplicates. Ratings
+ * and rating counts are jittered. Ids and isbns are renumbered so they stay unique. The output
+ * is always the same for the same source, scale and seed.
+ *
+ * usage: java CatalogGenerator scale output.xml [source.xml] [seed]
+ */
+public class CatalogGenerator {
+    // the columns of a row in sheet order
+    private static final String[] COLUMNS = {"A", "B", "C", "D", "E", "F", "G", "H", "I", "J", "K", "L"};
+    private static final int TITLE = 1;
+    private static final int RATING = 3;
+    private static final int ISBN = 4;
+    private static final int ISBN13 = 5;
+    private static final int RATING_COUNT = 8;
+
+    private final List<String[]> rows;
+    private final String[] header;
+    private final List<String> vocabulary;
+
+    /**
+     * read every row of the source catalog
+     * @param source path of books.xml
+     */
+    public CatalogGenerator(String source) throws IOException, XMLStreamException {
+        this.rows = new ArrayList<>();
+        this.vocabulary = new ArrayList<>();
+        String[] first = null;
+        try (InputStream in = new BufferedInputStream(new FileInputStream(source))) {
+            XMLStreamReader reader = XMLInputFactory.newInstance().createXMLStreamReader(in);
+            while (reader.hasNext()) {
+                if (reader.next() == XMLStreamConstants.START_ELEMENT
+                        && "Row".equals(reader.getLocalName())) {
+                    String[] row = new String[COLUMNS.length];
+                    for (int i = 0; i < COLUMNS.length; i++) {
+                        row[i] = reader.getAttributeValue(null, COLUMNS[i]);
+                    }
+                    if (first == null) {
+                        first = row;
+                        continue;
+                    }
+                    rows.add(row);
+                    if (row[TITLE] != null) {
+                        for (String word : row[TITLE].split(" ")) {
+                            if (!word.isEmpty()) {
+                                vocabulary.add(word);
+                            }
+                        }
+                    }
+                }
+            }
+            reader.close();
+        }
+        this.header = first;
+    }
+
+    /**
+     * @return number of books in the source catalog
+     */
+    public int size() {
+        return rows.size();
+    }
+
+    /**
+     * write the source catalog scale times over
+     * @param scale number of copies of every row, at least 1
+     * @param out where the xml goes, utf-8 encoded
+     * @param seed seed of the random title and rating changes
+     * @return number of books written
+     */
+    public int generate(int scale, OutputStream out, long seed) throws XMLStreamException {
+        if (scale < 1) {
+            throw new IllegalArgumentException("scale must be positive");
+        }
+        Random random = new Random(seed);
+        XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(out, "UTF-8");
+        writer.writeStartDocument("UTF-8", "1.0");
+        writer.writeCharacters("\n");
+        writer.writeStartElement("Records");
+        if (header != null) {
+            writeRow(writer, header);
+        }
+        long serial = 0;
+        for (int copy = 0; copy < scale; copy++) {
+            for (String[] row : rows) {
+                String[] copied = row.clone();
+                serial++;
+                copied[0] = Long.toString(serial);
+                if (copy > 0) {
+                    copied[TITLE] = swapWord(row[TITLE], random);
+                    copied[RATING] = jitterRating(row[RATING], random);
+                    copied[RATING_COUNT] = jitterCount(row[RATING_COUNT], random);
+                    copied[ISBN] = String.format("%010d", serial);
+                    copied[ISBN13] = Long.toString(9790000000000L + serial);
+                }
+                writeRow(writer, copied);
+            }
+        }
+        writer.writeCharacters("\n");
+        writer.writeEndElement();
+        writer.writeEndDocument();
+        writer.flush();
+        return (int) serial;
+    }
+
+    private String swapWord(String title, Random random) {
+        if (title == null || vocabulary.isEmpty()) {
+            return title;
+        }
+        String[] words = title.split(" ");
+        words[random.nextInt(words.length)] = vocabulary.get(random.nextInt(vocabulary.size()));
+        return String.join(" ", words);
+    }
+
+    private static String jitterRating(String rating, Random random) {
+        try {
+            double r = Double.parseDouble(rating) + (random.nextInt(21) - 10) / 100.0;
+            r = Math.max(0, Math.min(5, r));
+            return String.format(Locale.ROOT, "%.2f", r);
+        } catch (NumberFormatException | NullPointerException e) {
+            return rating;
+        }
+    }
+
+    private static String jitterCount(String count, Random random) {
+        try {
+            long c = Long.parseLong(count);
+            return Long.toString(Math.min(Integer.MAX_VALUE, c / 2 + (long) (random.nextDouble() * c)));
+        } catch (NumberFormatException e) {
+            return count;
+        }
+    }
+
+    private static void writeRow(XMLStreamWriter writer, String[] row) throws XMLStreamException {
+        writer.writeCharacters("\n  ");
+        writer.writeStartElement("Record");
+        writer.writeEmptyElement("Row");
+        for (int i = 0; i < COLUMNS.length; i++) {
+            if (row[i] != null) {
+                writer.writeAttribute(COLUMNS[i], row[i]);
+            }
+        }
+        writer.writeEndElement();
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("usage: java CatalogGenerator scale output.xml [source.xml] [seed]");
+            System.exit(1);
+        }
+        int scale = Integer.parseInt(args[0]);
+        String source = args.length > 2 ? args[2] : "books.xml";
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 42;
+        CatalogGenerator generator = new CatalogGenerator(source);
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(args[1]))) {
+            int written = generator.generate(scale, out, seed);
+            System.out.println("Wrote " + written + " books to " + args[1]);
+        }
+    }
+}
@@ -0,0 +1,250 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+/**
+ * ConcurrentBookSearcherBackend lets any number of threads search while one thread at a time adds
+ * books, without readers ever taking a lock. It keeps two BookSearcherBackend copies of the
+ * indexes and the columnar book store and follows the left-right pattern: readers always
+ * use the copy the writer is not touching, the writer updates the other copy, switches readers
+ * over, waits until no reader is left on the old copy and then applies the same change to it.
+ *
+ * Readers only increment and later decrement the same slot of a striped counter, so searches
+ * never block and never see a half inserted book. Every slot on its own counts the readers still
+ * in it, which is what lets the writer add the slots up one by one while readers come and go.
+ * Slots are a cache line apart so readers on different cores do not share one. Writers wait for
+ * in-flight reads to drain and are serialized among themselves.
+ */
+public class ConcurrentBookSearcherBackend implements IBookSearcherBackend {
+    // reader slots per version, a power of two
+    private static final int STRIPES = stripes();
+    // longs between two slots, 128 bytes keeps them off each other's cache lines
+    private static final int PAD = 16;
+
+    private final BookSearcherBackend[] copies;
+    // which copy new readers use
+    private volatile int readIndex;
+    // readers that arrived under each version, the writer waits for these to reach zero
+    private final AtomicLongArray[] readers;
+    private volatile int versionIndex;
+    private final Object writeLock;
+
+    public ConcurrentBookSearcherBackend() {
+        this(new BookSearcherBackend(), new BookColumns());
+    }
+
+    /**
+     * @param first loaded backend, the first copy
+     * @param second empty store of the second copy, it gets the books of the first
+     */
+    public ConcurrentBookSearcherBackend(BookSearcherBackend first, IBookStore second) {
+        List<IBook> views = new ArrayList<>(first.getNumberOfBooks());
+        for (int id = 0; id < first.getNumberOfBooks(); id++) {
+            views.add(first.store.get(id));
+        }
+        BookSearcherBackend other = new BookSearcherBackend(second);
+        other.addBooks(views);
+        this.copies = new BookSearcherBackend[] {first, other};
+        this.readers = new AtomicLongArray[] {
+                new AtomicLongArray(STRIPES * PAD), new AtomicLongArray(STRIPES * PAD)};
+        this.readIndex = 0;
+        this.versionIndex = 0;
+        this.writeLock = new Object();
+    }
+
+    /**
+     * add books to both copies of the indexes, readers see the book once the first copy has it
+     * @param book book object being added
+     */
+    @Override
+    public void addBook(IBook book) {
+        addBooks(Collections.singletonList(book));
+    }
+
+    /**
+     * add a batch of books with a single switch of the copies, the writer waits for in-flight
+     * reads once per batch instead of once per book
+     * @param books book objects being added, in order
+     */
+    @Override
+    public void addBooks(List<IBook> books) {
+        synchronized (writeLock) {
+            int current = readIndex;
+            int other = 1 - current;
+            copies[other].addBooks(books);
+            readIndex = other;
+            // readers that might still be on the old copy registered under one of the two
+            // versions, flip the version and wait for both to drain
+            int version = versionIndex;
+            waitForReaders(1 - version);
+            versionIndex = 1 - version;
+            waitForReaders(version);
+            copies[current].addBooks(books);
+        }
+    }
+
+    private void waitForReaders(int version) {
+        AtomicLongArray arrived = readers[version];
+        for (int slot = 0; slot < STRIPES * PAD; slot += PAD) {
+            while (arrived.get(slot) != 0) {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    /**
+     * run a query against the copy readers are currently on
+     * @param query the search to run
+     * @return the result of the search
+     */
+    private <R> R read(Function<IBookSearcherBackend, R> query) {
+        AtomicLongArray arrived = readers[versionIndex];
+        int slot = slot();
+        arrived.incrementAndGet(slot);
+        try {
+            return query.apply(copies[readIndex]);
+        } finally {
+            arrived.decrementAndGet(slot);
+        }
+    }
+
+    /**
+     * @return the slot of the calling thread, the same on every call
+     */
+    private static int slot() {
+        long id = Thread.currentThread().getId();
+        return ((int) (id * 0x9E3779B97F4A7C15L >>> 32) & (STRIPES - 1)) * PAD;
+    }
+
+    private static int stripes() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        return Math.min(64, Integer.highestOneBit(cores * 2 - 1) << 1);
+    }
+
+    @Override
+    public int getNumberOfBooks() {
+        return read(IBookSearcherBackend::getNumberOfBooks);
+    }
+
+    @Override
+    public List<IBook> searchByTitleWord(String word) {
+        return read(b -> b.searchByTitleWord(word));
+    }
+
+    @Override
+    public List<IBook> searchByRating(double rate) {
+        return read(b -> b.searchByRating(rate));
+    }
+
+    @Override
+    public List<IBook> searchByRatingRange(double min, double max) {
+        return read(b -> b.searchByRatingRange(min, max));
+    }
+
+    /**
+     * the walk cannot outlive the read, so the range is collected before it is returned
+     */
+    @Override
+    public Iterator<IBook> ratingRangeIterator(double min, double max) {
+        List<IBook> books = searchByRatingRange(min, max);
+        return books == null ? Collections.emptyIterator() : books.iterator();
+    }
+
+    @Override
+    public List<IBook> searchByTitleWord(String word, int k, BookRanking ranking) {
+        return read(b -> b.searchByTitleWord(word, k, ranking));
+    }
+
+    @Override
+    public List<IBook> searchByRatingRange(double min, double max, int k, BookRanking ranking) {
+        return read(b -> b.searchByRatingRange(min, max, k, ranking));
+    }
+
+    @Override
+    public List<IBook> searchByTitlePrefix(String prefix) {
+        return read(b -> b.searchByTitlePrefix(prefix));
+    }
+
+    @Override
+    public List<IBook> searchByTitleSubstring(String substring) {
+        return read(b -> b.searchByTitleSubstring(substring));
+    }
+
+    @Override
+    public List<IBook> searchByAuthor(String name) {
+        return read(b -> b.searchByAuthor(name));
+    }
+
+    @Override
+    public List<IBook> searchByAuthorPrefix(String prefix) {
+        return read(b -> b.searchByAuthorPrefix(prefix));
+    }
+
+    @Override
+    public List<IBook> searchByPublisher(String name) {
+        return read(b -> b.searchByPublisher(name));
+    }
+
+    @Override
+    public List<IBook> searchByPublisherPrefix(String prefix) {
+        return read(b -> b.searchByPublisherPrefix(prefix));
+    }
+
+    @Override
+    public IBook getBookById(int bookId) {
+        return read(b -> b.getBookById(bookId));
+    }
+
+    @Override
+    public IBook getBookByIsbn(String isbn) {
+        return read(b -> b.getBookByIsbn(isbn));
+    }
+
+    @Override
+    public List<IBook> searchByPublicationDate(int fromDay, int toDay) {
+        return read(b -> b.searchByPublicationDate(fromDay, toDay));
+    }
+
+    @Override
+    public List<IBook> searchByPublicationDate(int fromDay, int toDay, BookFilter filter) {
+        return read(b -> b.searchByPublicationDate(fromDay, toDay, filter));
+    }
+
+    @Override
+    public List<IBook> getLanFilter(String lan, List<IBook> lt) {
+        return read(b -> b.getLanFilter(lan, lt));
+    }
+
+    @Override
+    public List<IBook> getRateFilter(int numRates, List<IBook> lt) {
+        return read(b -> b.getRateFilter(numRates, lt));
+    }
+
+    @Override
+    public List<IBook> getPagesFilter(int numPages, List<IBook> lt) {
+        return read(b -> b.getPagesFilter(numPages, lt));
+    }
+
+    @Override
+    public List<IBook> filter(BookFilter filter, List<IBook> lt) {
+        return read(b -> b.filter(filter, lt));
+    }
+
+    @Override
+    public List<IBook> searchByTitleWord(String word, BookFilter filter) {
+        return read(b -> b.searchByTitleWord(word, filter));
+    }
+
+    @Override
+    public List<IBook> searchByRating(double rate, BookFilter filter) {
+        return read(b -> b.searchByRating(rate, filter));
+    }
+
+    @Override
+    public List<IBook> searchByRatingRange(double min, double max, BookFilter filter) {
+        return read(b -> b.searchByRatingRange(min, max, filter));
+    }
+}
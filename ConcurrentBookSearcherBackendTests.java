@@ -0,0 +1,174 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Readers search while a writer adds batches of books. Every batch goes in with one switch of the
+ * copies, so a reader must always see whole batches, never fewer books than it saw before, and
+ * never an exception from a copy that is being written. The books of a result are views that
+ * read their copy's store, so they must stay readable while that store grows under later adds.
+ */
+public class ConcurrentBookSearcherBackendTests {
+    private static final int BATCHES = 200;
+    private static final int BATCH = 25;
+    private static final int READERS = 4;
+
+    private static List<IBook> batch(int n) {
+        List<IBook> books = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            books.add(new Book("Stress " + n + " book " + i, "Author " + i, 1 + i % 5, 100 + i, "eng", i));
+        }
+        return books;
+    }
+
+    @Test
+    public void readersSeeWholeBatchesWhileBooksAreAdded() throws InterruptedException {
+        ConcurrentBookSearcherBackend backend = new ConcurrentBookSearcherBackend();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread writer = new Thread(() -> {
+            try {
+                start.await();
+                for (int n = 0; n < BATCHES; n++) {
+                    backend.addBooks(batch(n));
+                }
+            } catch (Throwable e) {
+                failure.compareAndSet(null, e);
+            }
+        });
+        List<Thread> readers = new ArrayList<>();
+        for (int r = 0; r < READERS; r++) {
+            Thread reader = new Thread(() -> {
+                try {
+                    start.await();
+                    int seen = 0;
+                    while (seen < BATCHES * BATCH && failure.get() == null) {
+                        List<IBook> books = backend.searchByTitleWord("stress");
+                        int size = books == null ? 0 : books.size();
+                        assertEquals(0, size % BATCH, "a batch was only partly visible");
+                        assertTrue(size >= seen, "a reader went back to an older copy");
+                        seen = size;
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            });
+            readers.add(reader);
+            reader.start();
+        }
+        writer.start();
+        start.countDown();
+        writer.join(60_000);
+        for (Thread reader : readers) {
+            reader.join(60_000);
+        }
+        if (failure.get() != null) {
+            throw new AssertionError(failure.get());
+        }
+        assertEquals(BATCHES * BATCH, backend.getNumberOfBooks());
+        assertEquals(BATCHES * BATCH, backend.searchByTitleWord("stress").size());
+    }
+
+    /**
+     * every field of a batch book is set, a view read while its store grows must not see a
+     * default instead
+     */
+    private static void checkFields(IBook book) {
+        assertTrue(book.getTitle() != null && book.getTitle().startsWith("Stress "), "title");
+        assertTrue(book.getAuthor() != null && book.getAuthor().startsWith("Author "), "author");
+        assertTrue(book.getRating() >= 1, "rating");
+        assertTrue(book.getNumberOfPages() >= 100, "pages");
+        assertEquals("eng", book.getLanguage());
+    }
+
+    private static void readViewsWhileBooksAreAdded(ConcurrentBookSearcherBackend backend)
+            throws InterruptedException {
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread writer = new Thread(() -> {
+            try {
+                start.await();
+                for (int n = 0; n < BATCHES; n++) {
+                    backend.addBooks(batch(n));
+                }
+            } catch (Throwable e) {
+                failure.compareAndSet(null, e);
+            }
+        });
+        List<Thread> readers = new ArrayList<>();
+        for (int r = 0; r < READERS; r++) {
+            Thread reader = new Thread(() -> {
+                try {
+                    start.await();
+                    // results are read long after their search returned, like a cache or a
+                    // paging client does, while the writer keeps growing the same stores
+                    List<List<IBook>> kept = new ArrayList<>();
+                    int seen = 0;
+                    while (seen < BATCHES * BATCH && failure.get() == null) {
+                        List<IBook> books = backend.searchByTitleWord("stress");
+                        if (books != null) {
+                            seen = books.size();
+                            kept.add(books);
+                        }
+                        for (List<IBook> result : kept) {
+                            for (IBook book : result) {
+                                checkFields(book);
+                            }
+                        }
+                        if (kept.size() > 8) {
+                            kept.remove(0);
+                        }
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            });
+            readers.add(reader);
+            reader.start();
+        }
+        writer.start();
+        start.countDown();
+        writer.join(60_000);
+        for (Thread reader : readers) {
+            reader.join(60_000);
+        }
+        if (failure.get() != null) {
+            throw new AssertionError(failure.get());
+        }
+        assertEquals(BATCHES * BATCH, backend.getNumberOfBooks());
+    }
+
+    @Test
+    public void viewsStayReadableWhileTheirStoreGrows() throws InterruptedException {
+        // a small first capacity makes the columns grow many times during the test
+        readViewsWhileBooksAreAdded(new ConcurrentBookSearcherBackend(
+                new BookSearcherBackend(new BookColumns(1)), new BookColumns(1)));
+    }
+
+    @Test
+    public void offHeapViewsStayReadableWhileTheirStoreGrows() throws InterruptedException {
+        readViewsWhileBooksAreAdded(new ConcurrentBookSearcherBackend(
+                new BookSearcherBackend(new OffHeapBookStore()), new OffHeapBookStore()));
+    }
+
+    @Test
+    public void bothCopiesGetEveryBook() {
+        ConcurrentBookSearcherBackend backend = new ConcurrentBookSearcherBackend();
+        assertNull(backend.searchByTitleWord("stress"));
+        // every add switches the copy readers use, so two adds read both copies
+        backend.addBooks(batch(0));
+        assertEquals(BATCH, backend.searchByTitleWord("stress").size());
+        backend.addBook(new Book("Stress extra", "Author", 3, 10, "eng", 1));
+        assertEquals(BATCH + 1, backend.searchByTitleWord("stress").size());
+        backend.addBooks(batch(1));
+        assertEquals(2 * BATCH + 1, backend.searchByTitleWord("stress").size());
+        assertEquals(2 * BATCH + 1, backend.getNumberOfBooks());
+    }
+}
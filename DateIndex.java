@@ -0,0 +1,194 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * DateIndex maps publication dates to book ids for range queries. Every book is one long entry,
+ * the epoch day in the high half and the book id in the low half, so ordering the longs orders the
+ * books by date and then by id. The entries sit in a few packed sorted runs; a range is two binary
+ * searches per run and a merged walk over the consecutive entries between them.
+ *
+ * New entries first go to a small unsorted tail. A full tail is sorted into a run of its own, and
+ * runs are merged while the newest is at least half the size of the one before, so run sizes
+ * shrink geometrically: there are O(log n) runs and every entry is merged O(log n) times. A whole
+ * catalog is appended without any merging and sorted once by flush().
+ */
+public class DateIndex {
+    // entries added one at a time before the tail becomes a run
+    private static final int TAIL = 1024;
+
+    // sorted runs, every run more than twice the size of the next one
+    private final List<long[]> runs;
+    // entries not in a run yet, in the order they were added
+    private long[] tail;
+    private int tailSize;
+
+    public DateIndex() {
+        this.runs = new ArrayList<>();
+        this.tail = new long[TAIL];
+        this.tailSize = 0;
+    }
+
+    /**
+     * add the id of a book published on the day
+     * @param epochDay publication date in days since 1970-01-01, EpochDay.NONE is not indexed
+     * @param id book id, not negative
+     */
+    public void add(int epochDay, int id) {
+        append(epochDay, id);
+        if (tailSize >= TAIL) {
+            flush();
+        }
+    }
+
+    /**
+     * add the id of a book without sorting anything yet, for loading a whole catalog; flush()
+     * must be called once the catalog is in
+     * @param epochDay publication date in days since 1970-01-01, EpochDay.NONE is not indexed
+     * @param id book id, not negative
+     */
+    public void append(int epochDay, int id) {
+        if (epochDay == EpochDay.NONE) {
+            return;
+        }
+        if (id < 0) {
+            throw new IllegalArgumentException("id cannot be negative: " + id);
+        }
+        if (tailSize == tail.length) {
+            tail = Arrays.copyOf(tail, tail.length * 2);
+        }
+        tail[tailSize++] = entry(epochDay, id);
+    }
+
+    /**
+     * sort the entries added since the last flush into a run and merge the runs that are close
+     * in size
+     */
+    public void flush() {
+        if (tailSize == 0) {
+            return;
+        }
+        long[] run = Arrays.copyOf(tail, tailSize);
+        Arrays.sort(run);
+        tail = new long[TAIL];
+        tailSize = 0;
+        while (!runs.isEmpty() && runs.get(runs.size() - 1).length <= run.length * 2) {
+            run = merge(runs.remove(runs.size() - 1), run);
+        }
+        runs.add(run);
+    }
+
+    private static long[] merge(long[] a, long[] b) {
+        long[] merged = new long[a.length + b.length];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < a.length && j < b.length) {
+            merged[k++] = a[i] <= b[j] ? a[i++] : b[j++];
+        }
+        while (i < a.length) {
+            merged[k++] = a[i++];
+        }
+        while (j < b.length) {
+            merged[k++] = b[j++];
+        }
+        return merged;
+    }
+
+    /**
+     * @return number of books in the index
+     */
+    public int size() {
+        int size = tailSize;
+        for (long[] run : runs) {
+            size += run.length;
+        }
+        return size;
+    }
+
+    /**
+     * iterate the ids of all books published between from and to, earliest first and in
+     * ascending id order within a day
+     * @param from first day, inclusive
+     * @param to last day, inclusive
+     * @return iterator over the ids in range
+     */
+    public PrimitiveIterator.OfInt range(int from, int to) {
+        long low = entry(from, 0);
+        long high = entry(to, Integer.MAX_VALUE);
+        // one cursor per run, the tail entries in range are sorted into one more
+        int n = runs.size();
+        long[][] sources = new long[n + 1][];
+        int[] next = new int[n + 1];
+        int[] end = new int[n + 1];
+        for (int r = 0; r < n; r++) {
+            long[] run = runs.get(r);
+            sources[r] = run;
+            next[r] = lowerBound(run, low);
+            end[r] = from > to ? next[r] : lowerBound(run, high + 1);
+        }
+        long[] extra = new long[tailSize];
+        int extraSize = 0;
+        for (int i = 0; i < tailSize && from <= to; i++) {
+            if (tail[i] >= low && tail[i] <= high) {
+                extra[extraSize++] = tail[i];
+            }
+        }
+        Arrays.sort(extra, 0, extraSize);
+        sources[n] = extra;
+        end[n] = extraSize;
+        return new PrimitiveIterator.OfInt() {
+            @Override
+            public boolean hasNext() {
+                for (int r = 0; r < sources.length; r++) {
+                    if (next[r] < end[r]) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+
+            @Override
+            public int nextInt() {
+                int smallest = -1;
+                for (int r = 0; r < sources.length; r++) {
+                    if (next[r] < end[r]
+                            && (smallest < 0 || sources[r][next[r]] < sources[smallest][next[smallest]])) {
+                        smallest = r;
+                    }
+                }
+                if (smallest < 0) {
+                    throw new NoSuchElementException();
+                }
+                return id(sources[smallest][next[smallest]++]);
+            }
+        };
+    }
+
+    /**
+     * @return index of the first entry of the run not smaller than the key
+     */
+    private static int lowerBound(long[] run, long key) {
+        int low = 0;
+        int high = run.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (run[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static long entry(int epochDay, int id) {
+        return (long) epochDay << 32 | id;
+    }
+
+    private static int id(long entry) {
+        return (int) entry;
+    }
+}
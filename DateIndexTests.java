@@ -0,0 +1,147 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * EpochDay must agree with java.time on every valid date and reject everything else, and a
+ * DateIndex range must return the same ids as a scan whether its entries sit in sorted runs, in
+ * the unsorted tail, or on both sides of the boundary between them.
+ */
+public class DateIndexTests {
+    // more than the tail of the index holds, so adds spill into runs
+    private static final int BOOKS = 5000;
+
+    @Test
+    public void parseAgreesWithLocalDate() {
+        for (String date : new String[] {"1/1/1970", "12/31/1969", "2/29/2000", "2/29/2004",
+                "9/16/2006", "03/05/0999", "12/31/9999", "1/1/1"}) {
+            String[] parts = date.split("/");
+            LocalDate expected = LocalDate.of(Integer.parseInt(parts[2]), Integer.parseInt(parts[0]),
+                    Integer.parseInt(parts[1]));
+            assertEquals(expected.toEpochDay(), EpochDay.parse(date), date);
+        }
+        assertEquals("2/29/2000", EpochDay.format(EpochDay.parse("02/29/2000")));
+    }
+
+    @Test
+    public void parseRejectsPartialAndInvalidDates() {
+        for (String date : new String[] {"", "1", "1/", "1/1", "1/1/", "/1/2000", "1//2000",
+                "13/1/2000", "0/1/2000", "1/0/2000", "11/31/2000", "2/30/2000", "2/29/1900",
+                "2/29/2001", "a/1/2000", "1/1/20000", "00001/1/2000", "1/1/2000/", "1-1-2000",
+                " 1/1/2000", "1/1/2000 "}) {
+            assertEquals(EpochDay.NONE, EpochDay.parse(date), "\"" + date + "\"");
+        }
+        assertEquals(EpochDay.NONE, EpochDay.parse(null));
+        assertEquals(EpochDay.NONE, EpochDay.of(2000, 4, 31));
+    }
+
+    @Test
+    public void formatRoundTrips() {
+        for (int day = EpochDay.of(1899, 12, 1); day <= EpochDay.of(2101, 1, 31); day += 7) {
+            assertEquals(day, EpochDay.parse(EpochDay.format(day)));
+        }
+        assertNull(EpochDay.format(EpochDay.NONE));
+    }
+
+    private static List<Integer> collect(PrimitiveIterator.OfInt ids) {
+        List<Integer> list = new ArrayList<>();
+        while (ids.hasNext()) {
+            list.add(ids.nextInt());
+        }
+        return list;
+    }
+
+    /**
+     * @return ids of the days in range, earliest first and by id within a day
+     */
+    private static List<Integer> scan(int[] days, int count, int from, int to) {
+        List<Integer> list = new ArrayList<>();
+        for (int day = from; day <= to; day++) {
+            for (int id = 0; id < count; id++) {
+                if (days[id] == day) {
+                    list.add(id);
+                }
+            }
+        }
+        return list;
+    }
+
+    private static void checkRanges(DateIndex index, int[] days, int count, Random random) {
+        int indexed = 0;
+        for (int id = 0; id < count; id++) {
+            if (days[id] != EpochDay.NONE) {
+                indexed++;
+            }
+        }
+        assertEquals(indexed, index.size());
+        for (int i = 0; i < 20; i++) {
+            int from = random.nextInt(400) - 10;
+            int to = from + random.nextInt(60) - 5;
+            assertEquals(scan(days, count, from, to), collect(index.range(from, to)),
+                    from + ".." + to + " of " + count);
+        }
+        assertEquals(scan(days, count, -1, 400), collect(index.range(-1, 400)));
+    }
+
+    private static int[] days(Random random) {
+        int[] days = new int[BOOKS];
+        for (int id = 0; id < BOOKS; id++) {
+            days[id] = random.nextInt(20) == 0 ? EpochDay.NONE : random.nextInt(366);
+        }
+        return days;
+    }
+
+    @Test
+    public void rangeMatchesAScanAcrossRunsAndTail() {
+        Random random = new Random(25);
+        int[] days = days(random);
+        DateIndex index = new DateIndex();
+        for (int id = 0; id < BOOKS; id++) {
+            index.add(days[id], id);
+            // right after a run was cut, in the middle of a tail and the last partial tail
+            if (id % 1024 == 0 || id % 1024 == 1023 || id % 997 == 500 || id == BOOKS - 1) {
+                checkRanges(index, days, id + 1, random);
+            }
+        }
+    }
+
+    @Test
+    public void appendedEntriesAreFoundBeforeAndAfterFlush() {
+        Random random = new Random(26);
+        int[] days = days(random);
+        DateIndex index = new DateIndex();
+        for (int id = 0; id < 3000; id++) {
+            index.append(days[id], id);
+        }
+        // everything is still unsorted
+        checkRanges(index, days, 3000, random);
+        index.flush();
+        checkRanges(index, days, 3000, random);
+        for (int id = 3000; id < BOOKS; id++) {
+            index.add(days[id], id);
+        }
+        checkRanges(index, days, BOOKS, random);
+        index.flush();
+        checkRanges(index, days, BOOKS, random);
+    }
+
+    @Test
+    public void emptyAndReversedRanges() {
+        DateIndex index = new DateIndex();
+        assertFalse(index.range(0, 100).hasNext());
+        for (int id = 0; id < 2000; id++) {
+            index.add(id % 10, id);
+        }
+        assertFalse(index.range(5, 4).hasNext());
+        assertFalse(index.range(10, 100).hasNext());
+        assertEquals(200, collect(index.range(3, 3)).size());
+    }
+}
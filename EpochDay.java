@@ -0,0 +1,111 @@
+/**
+ * EpochDay converts the publication_date column of the catalog, M/D/YYYY, to and from the number
+ * of days since 1970-01-01, the int a book keeps its date as. Parsing walks the chars once and
+ * allocates nothing; the days are counted with the civil calendar arithmetic of
+ * java.time.LocalDate.toEpochDay, without creating a LocalDate or going through SimpleDateFormat.
+ */
+public final class EpochDay {
+    // no date, or one that cannot be parsed
+    public static final int NONE = Integer.MIN_VALUE;
+
+    private static final int DAYS_PER_ERA = 146_097;
+    // days from 0000-03-01 to 1970-01-01
+    private static final int DAYS_0000_TO_1970 = 719_468;
+
+    private EpochDay() {
+    }
+
+    /**
+     * @param date a date written M/D/YYYY, e.g. 9/16/2006
+     * @return days since 1970-01-01, NONE if it is not a valid date
+     */
+    public static int parse(CharSequence date) {
+        if (date == null) {
+            return NONE;
+        }
+        // month, day and year, in the order they are written
+        int month = 0;
+        int day = 0;
+        int year = 0;
+        int field = 0;
+        int digits = 0;
+        for (int i = 0; i < date.length(); i++) {
+            char c = date.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (++digits > 4) {
+                    return NONE;
+                }
+                if (field == 0) {
+                    month = month * 10 + (c - '0');
+                } else if (field == 1) {
+                    day = day * 10 + (c - '0');
+                } else {
+                    year = year * 10 + (c - '0');
+                }
+            } else if (c == '/' && digits > 0 && field < 2) {
+                field++;
+                digits = 0;
+            } else {
+                return NONE;
+            }
+        }
+        if (field != 2 || digits == 0) {
+            return NONE;
+        }
+        return of(year, month, day);
+    }
+
+    /**
+     * @param year the year
+     * @param month 1 to 12
+     * @param day day of the month
+     * @return days since 1970-01-01, NONE if there is no such day
+     */
+    public static int of(int year, int month, int day) {
+        if (month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) {
+            return NONE;
+        }
+        // years start in March so the leap day is the last day of the year
+        int y = month <= 2 ? year - 1 : year;
+        int era = Math.floorDiv(y, 400);
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * DAYS_PER_ERA + dayOfEra - DAYS_0000_TO_1970;
+    }
+
+    /**
+     * @param epochDay days since 1970-01-01
+     * @return the date written M/D/YYYY, null for NONE
+     */
+    public static String format(int epochDay) {
+        if (epochDay == NONE) {
+            return null;
+        }
+        int days = epochDay + DAYS_0000_TO_1970;
+        int era = Math.floorDiv(days, DAYS_PER_ERA);
+        int dayOfEra = days - era * DAYS_PER_ERA;
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int mp = (5 * dayOfYear + 2) / 153;
+        int day = dayOfYear - (153 * mp + 2) / 5 + 1;
+        int month = mp < 10 ? mp + 3 : mp - 9;
+        int year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return month + "/" + day + "/" + year;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        switch (month) {
+        case 2:
+            boolean leap = year % 4 == 0 && (year % 100 != 0 || year % 400 == 0);
+            return leap ? 29 : 28;
+        case 4:
+        case 6:
+        case 9:
+        case 11:
+            return 30;
+        default:
+            return 31;
+        }
+    }
+}
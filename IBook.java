@@ -8,8 +8,15 @@ public interface IBook extends Comparable<IBook> {
     double getRating(); // retrieve the Rating of the book (out of 5)
     int getNumberOfPages(); // retrieves the total page number of the book
     String getAuthor(); //retrieves the author of the book
+    String getPublisher(); // retrieves the publisher of the book, null if it is not known
+    int getBookId(); // the bookID of the catalog, -1 if it is not known
+    String getIsbn(); // the ISBN-10 as written in the catalog, null if it is not known
+    long getIsbn13(); // the ISBN-13 as written in the catalog, -1 if it is not known
+    int getPublicationDate(); // days since 1970-01-01, EpochDay.NONE if it is not known
     int getTotalRating(); //retrievs the total number of ratings the books has received
     int getTotalReviews(); // retrives the total reviews
+    String getLanguage(); // retrieves the language code the book is written in
+    int getLanguageId(); // id of the language code, books in the same language have the same id
     Boolean isSameLanguage(String language); //check if the book is written in same language
     // compareTo() method supports sorting books in descending order by rating
 
@@ -11,6 +11,9 @@ import java.io.FileNotFoundException;
  *   - num_pages: total number of pages the book has
  *   - ratings_count: number of ratings received by the book
  *   - text_reviews_count: number of text review received by the book
+ *   - publisher: the publisher of the book
+ *   - bookID, isbn, isbn13: the keys the book is looked up by
+ *   - publication_date: the day the book was published, M/D/YYYY
  */
 public interface IBookLoader {
 
@@ -18,6 +21,8 @@ public interface IBookLoader {
      * This method loads the list of books described within a CSV file.
      * @param filepath is relative to executable's working directory
      * @return a list of book objects that were read from specified file
+     * @throws IllegalStateException if the file cannot be read or is not a valid catalog, a
+     *         partial catalog is never returned
      */
     List<IBook> loadBooks(String filepath) throws FileNotFoundException;
 
@@ -1,3 +1,4 @@
+import java.util.Iterator;
 import java.util.List;
 /**
  * An instance of a class that implements the following interface can be used
@@ -6,12 +7,46 @@ import java.util.List;
 public interface IBookSearcherBackend {
 
     public void addBook(IBook book); // adds book to backend database
+    public void addBooks(List<IBook> books); // adds books to backend database, in order
     public int getNumberOfBooks(); // retrieve number of books in database
 
     // these methods can be used to look-up books by title word or rating
     public List<IBook> searchByTitleWord(String word);
     public List<IBook> searchByRating(double rate);
 
+    // look-up books whose rating is between min and max (both inclusive), lowest rating first;
+    // the iterator variant produces the books lazily while the rating index is walked
+    public List<IBook> searchByRatingRange(double min, double max);
+    public Iterator<IBook> ratingRangeIterator(double min, double max);
+
+    // top-k variants of the searches: only the k best books by the ranking are returned, best
+    // first, and only k candidates are held while the matches are collected
+    public List<IBook> searchByTitleWord(String word, int k, BookRanking ranking);
+    public List<IBook> searchByRatingRange(double min, double max, int k, BookRanking ranking);
+
+    // these methods look-up books by part of a title word: every title word starting with
+    // the prefix, or containing the substring, is a match
+    public List<IBook> searchByTitlePrefix(String prefix);
+    public List<IBook> searchByTitleSubstring(String substring);
+
+    // these methods look-up books by the words of their author list or publisher, the same way
+    // as the title searches: every word of the name, or a word starting with the prefix
+    public List<IBook> searchByAuthor(String name);
+    public List<IBook> searchByAuthorPrefix(String prefix);
+    public List<IBook> searchByPublisher(String name);
+    public List<IBook> searchByPublisherPrefix(String prefix);
+
+    // exact look-up of a single book by the bookID of the catalog or by its ISBN-10 or ISBN-13,
+    // null if there is no such book
+    public IBook getBookById(int bookId);
+    public IBook getBookByIsbn(String isbn);
+
+    // look-up books published between two days (both inclusive, in days since 1970-01-01, see
+    // EpochDay), earliest first; BookFilter.publishedBetween applies the same range to the title
+    // and rating searches
+    public List<IBook> searchByPublicationDate(int fromDay, int toDay);
+    public List<IBook> searchByPublicationDate(int fromDay, int toDay, BookFilter filter);
+
     // calling either search method before setting the desired filters:
     // (all language, rating, and numPages are included in search results by default)
     // the results are searched according to the searchByTitleWord and searchByRating set above
@@ -27,5 +62,15 @@ public interface IBookSearcherBackend {
     // the results are searched according to the searchByTitleWord and searchByRating set above
     public List<IBook> getPagesFilter(int numPages, List<IBook> lt);
 
+    // applies every filter set on the BookFilter in a single pass over the books and stops once
+    // the filter's limit is reached, instead of one full pass and list per getXxxFilter call
+    public List<IBook> filter(BookFilter filter, List<IBook> lt);
+
+    // the searches with the filter applied while the matches are collected, the filter is
+    // answered by bitmap indexes over the book ids
+    public List<IBook> searchByTitleWord(String word, BookFilter filter);
+    public List<IBook> searchByRating(double rate, BookFilter filter);
+    public List<IBook> searchByRatingRange(double min, double max, BookFilter filter);
+
 }
 
@@ -0,0 +1,59 @@
+/**
+ * Instances of classes that implement this interface hold the fields of every book in the
+ * catalog, addressed by a dense book id: the first book added gets id 0, the next id 1 and so on.
+ * Indexes keep ids and read single fields through the store, IBook objects are only created by
+ * get() for the books a caller actually reads.
+ */
+public interface IBookStore {
+
+    /**
+     * copy the fields of a book into the store
+     * @param book book to store
+     * @return id of the stored book
+     */
+    int add(IBook book);
+
+    /**
+     * @return number of books in the store
+     */
+    int size();
+
+    String getTitle(int id);
+
+    String getAuthor(int id);
+
+    String getPublisher(int id);
+
+    int getBookId(int id);
+
+    String getIsbn(int id);
+
+    long getIsbn13(int id);
+
+    int getPublicationDate(int id);
+
+    double getRating(int id);
+
+    int getNumberOfPages(int id);
+
+    int getTotalRating(int id);
+
+    int getTotalReviews(int id);
+
+    /**
+     * @param id book id
+     * @return the id of the book's language code in Book.LANGUAGES
+     */
+    int getLanguageId(int id);
+
+    /**
+     * @param id book id
+     * @return a view of the book that reads its fields from the store on access
+     */
+    IBook get(int id);
+
+    /**
+     * release spare capacity once loading is finished
+     */
+    void trim();
+}
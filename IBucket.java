@@ -0,0 +1,28 @@
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Instances of classes that implement this interface are the lists a RedBlackTree keeps under one
+ * key and that take the values of a later insert with the same key in O(1) per value.
+ *
+ * @param <E> the value
+ */
+public interface IBucket<E> extends List<E> {
+
+    /**
+     * append the values of a later insert under the same key
+     * @param more values to append
+     */
+    void append(Collection<? extends E> more);
+
+    /**
+     * @return true if the bucket hands out its values in the order the tree searches return
+     */
+    boolean isOrdered();
+
+    /**
+     * @return the values, unmodifiable and backed by the bucket, in search order if the bucket
+     * is ordered
+     */
+    List<E> readOnly();
+}
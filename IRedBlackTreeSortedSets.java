@@ -1,3 +1,4 @@
+import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
 
@@ -20,4 +21,36 @@ public interface IRedBlackTreeSortedSets<V extends Comparable<V>, T>
    */
   public List search(V key) throws NoSuchElementException;
 
+  /**
+   * Search books of every key starting with this prefix
+   *
+   * @param prefix the prefix of the keys
+   * @return the lists of books of every matching key in key order, empty if no key matches
+   */
+  public List<T> searchPrefix(V prefix);
+
+  /**
+   * Search books of every key containing this substring
+   *
+   * @param substring the substring of the keys
+   * @return the lists of books of every matching key in key order, empty if no key matches
+   */
+  public List<T> searchSubstring(V substring);
+
+  /**
+   * Iterate the books of every key between low and high, both inclusive
+   *
+   * @param low the smallest key
+   * @param high the largest key
+   * @return lazy iterator over the lists of books of every key in range, in key order
+   */
+  public Iterator<T> rangeIterator(V low, V high);
+
+  /**
+   * Build the tree from sorted keys at once, only on an empty tree
+   *
+   * @param keys strictly ascending keys
+   * @param data the list of books of each key, at the same index
+   */
+  public void bulkLoad(List<V> keys, List<T> data);
 }
@@ -0,0 +1,105 @@
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * InvertedIndex maps every word of a text field to the posting list of the book ids whose field
+ * contains that word. Multi-word queries are answered by intersecting the posting lists of all
+ * query words, rarest first. Words come from TitleTokenizer and are looked up through a
+ * TermDictionary, so neither indexing nor searching allocates a String per word.
+ */
+public class InvertedIndex {
+    // word -> id, the id is the index of its posting list
+    private final TermDictionary terms;
+    private PostingList[] postings;
+
+    public InvertedIndex() {
+        this.terms = new TermDictionary();
+        this.postings = new PostingList[64];
+    }
+
+    /**
+     * index every word of the text for the book id, ids have to be added in ascending order
+     * @param id book id
+     * @param text the field being indexed, e.g. the title
+     */
+    public void add(int id, CharSequence text) {
+        TitleTokenizer tokenizer = TitleTokenizer.get().reset(text);
+        while (tokenizer.next()) {
+            addTerm(id, tokenizer);
+        }
+    }
+
+    /**
+     * index a single normalized word for the book id
+     * @param id book id, not smaller than the last id added
+     * @param term the word, e.g. a TitleTokenizer holding it
+     * @return the word as stored in the index if this is its first occurrence for the id,
+     *         null if the id already contains it
+     */
+    public String addTerm(int id, CharSequence term) {
+        int t = terms.add(term);
+        if (t == postings.length) {
+            postings = Arrays.copyOf(postings, t * 2);
+        }
+        if (postings[t] == null) {
+            postings[t] = new PostingList();
+        }
+        return postings[t].add(id) ? terms.term(t) : null;
+    }
+
+    /**
+     * @param term a single normalized word
+     * @return posting list of the word, null if no book contains it
+     */
+    public PostingList get(CharSequence term) {
+        int t = terms.find(term);
+        return t < 0 ? null : postings[t];
+    }
+
+    /**
+     * @return number of distinct words in the index
+     */
+    public int size() {
+        return terms.size();
+    }
+
+    /**
+     * find the books containing every word of the query
+     * @param query one or more words
+     * @return ids of the matching books in ascending order, empty if any word is unknown
+     */
+    public PostingList search(CharSequence query) {
+        TitleTokenizer tokenizer = TitleTokenizer.get().reset(query);
+        PostingList[] lists = new PostingList[4];
+        int n = 0;
+        while (tokenizer.next()) {
+            PostingList list = get(tokenizer);
+            if (list == null) {
+                return new PostingList();
+            }
+            if (n == lists.length) {
+                lists = Arrays.copyOf(lists, n * 2);
+            }
+            lists[n++] = list;
+        }
+        if (n == 0) {
+            return new PostingList();
+        }
+        // rarest word first keeps every intermediate result as small as possible
+        Arrays.sort(lists, 0, n, Comparator.comparingInt(PostingList::size));
+        PostingList result = lists[0];
+        for (int i = 1; i < n && result.size() > 0; i++) {
+            result = PostingList.intersect(result, lists[i]);
+        }
+        return result;
+    }
+
+    /**
+     * release the spare capacity of every posting list once loading is finished
+     */
+    public void trim() {
+        for (int t = 0; t < terms.size(); t++) {
+            postings[t].trim();
+        }
+    }
+}
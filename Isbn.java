@@ -0,0 +1,130 @@
+/**
+ * Isbn turns the ISBN columns of the catalog into primitive keys. Any ISBN, 10 or 13 digits,
+ * with or without hyphens, is normalized to its ISBN-13 as a long, the key the backend looks
+ * books up by. The spreadsheet the catalog comes from dropped the leading zeros of some ISBNs,
+ * so up to 10 digits are read as an ISBN-10 and 11 to 13 digits as an ISBN-13.
+ *
+ * An ISBN-10 is stored packed into a long, four bits per character above the length in the
+ * lowest four bits, so the stores keep it without a String per book.
+ */
+public final class Isbn {
+    // no ISBN, or one that cannot be parsed
+    public static final long NONE = -1;
+
+    private static final int ISBN10 = 10;
+    private static final int ISBN13 = 13;
+    // an ISBN-10 check digit of 10 is written X
+    private static final int X = 10;
+    private static final int MAX_PACKED = 15;
+
+    private Isbn() {
+    }
+
+    /**
+     * @param isbn ISBN-10 or ISBN-13, hyphens and spaces are ignored
+     * @return the ISBN-13 of the isbn, NONE if it is not one
+     */
+    public static long toIsbn13(String isbn) {
+        if (isbn == null) {
+            return NONE;
+        }
+        // digits of the isbn, X only as the last character
+        long value = 0;
+        int digits = 0;
+        boolean checkX = false;
+        for (int i = 0; i < isbn.length(); i++) {
+            char c = isbn.charAt(i);
+            if (c == '-' || c == ' ') {
+                continue;
+            }
+            if (checkX || digits == ISBN13) {
+                return NONE;
+            }
+            if (c >= '0' && c <= '9') {
+                value = value * 10 + (c - '0');
+            } else if (c == 'X' || c == 'x') {
+                checkX = true;
+            } else {
+                return NONE;
+            }
+            digits++;
+        }
+        if (digits > ISBN10 && !checkX) {
+            return value;
+        }
+        if (digits == 0 || digits > ISBN10) {
+            return NONE;
+        }
+        // an ISBN-10 keeps its first nine digits behind the 978 prefix and gets a new check digit
+        long body = checkX ? value : value / 10;
+        long isbn13 = 978_000_000_000L + body;
+        int sum = 0;
+        long rest = isbn13;
+        for (int i = 0; i < ISBN13 - 1; i++) {
+            // weights from the right: 3, 1, 3, ...
+            sum += (int) (rest % 10) * (i % 2 == 0 ? 3 : 1);
+            rest /= 10;
+        }
+        return isbn13 * 10 + (10 - sum % 10) % 10;
+    }
+
+    /**
+     * @param isbn13 the ISBN-13 column, digits only
+     * @return the value, NONE if it is empty or not a number
+     */
+    public static long parse13(String isbn13) {
+        if (isbn13 == null || isbn13.isEmpty() || isbn13.length() > 18) {
+            return NONE;
+        }
+        long value = 0;
+        for (int i = 0; i < isbn13.length(); i++) {
+            char c = isbn13.charAt(i);
+            if (c < '0' || c > '9') {
+                return NONE;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    /**
+     * @param isbn the ISBN-10 column, digits and X
+     * @return the characters packed into a long, NONE for null or anything else
+     */
+    public static long pack(String isbn) {
+        if (isbn == null || isbn.length() > MAX_PACKED) {
+            return NONE;
+        }
+        long packed = isbn.length();
+        for (int i = 0; i < isbn.length(); i++) {
+            char c = isbn.charAt(i);
+            int digit;
+            if (c >= '0' && c <= '9') {
+                digit = c - '0';
+            } else if (c == 'X' || c == 'x') {
+                digit = X;
+            } else {
+                return NONE;
+            }
+            packed |= (long) digit << (4 * (i + 1));
+        }
+        return packed;
+    }
+
+    /**
+     * @param packed a value returned by pack
+     * @return the isbn it was packed from, null for NONE
+     */
+    public static String unpack(long packed) {
+        if (packed == NONE) {
+            return null;
+        }
+        int length = (int) (packed & 0xF);
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            int digit = (int) (packed >>> (4 * (i + 1))) & 0xF;
+            chars[i] = digit == X ? 'X' : (char) ('0' + digit);
+        }
+        return new String(chars);
+    }
+}
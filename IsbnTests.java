@@ -0,0 +1,145 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.FileNotFoundException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Isbn must turn every way the catalog writes an ISBN into the ISBN-13 of the book, recomputing
+ * the check digit after the 978 prefix and putting back the leading zeros the spreadsheet dropped,
+ * and LongIntHashMap must find every key it was given however the keys collide. Every row of
+ * books.xml is looked up by its ISBN-10 through the backend.
+ */
+public class IsbnTests {
+
+    @Test
+    public void isbn10MapsToItsIsbn13() {
+        // known pairs, the check digits of the two differ
+        assertEquals(9780306406157L, Isbn.toIsbn13("0306406152"));
+        assertEquals(9780306406157L, Isbn.toIsbn13("0-306-40615-2"));
+        assertEquals(9780439785969L, Isbn.toIsbn13("0439785960"));
+        assertEquals(9780140449136L, Isbn.toIsbn13("0140449132"));
+        assertEquals(9781593275846L, Isbn.toIsbn13("1593275846"));
+        assertEquals(9780306406157L, Isbn.toIsbn13("978-0-306-40615-7"));
+    }
+
+    @Test
+    public void checkDigitXIsRead() {
+        assertEquals(9780804429573L, Isbn.toIsbn13("080442957X"));
+        assertEquals(9780804429573L, Isbn.toIsbn13("080442957x"));
+        assertEquals(9781843560579L, Isbn.toIsbn13("184356057X"));
+        // X only as the check digit of an ISBN-10
+        assertEquals(Isbn.NONE, Isbn.toIsbn13("08044X9571"));
+        assertEquals(Isbn.NONE, Isbn.toIsbn13("978080442957X"));
+    }
+
+    @Test
+    public void droppedLeadingZerosAreRestored() {
+        assertEquals(Isbn.toIsbn13("0439785960"), Isbn.toIsbn13("439785960"));
+        assertEquals(Isbn.toIsbn13("0006479888"), Isbn.toIsbn13("6479888"));
+        assertEquals(Isbn.toIsbn13("000000000X"), Isbn.toIsbn13("X"));
+    }
+
+    @Test
+    public void invalidIsbnsAreRejected() {
+        for (String isbn : new String[] {null, "", "-", "0-306-4O615-2", "97803064061570",
+                "0306406152X", "03064061/2"}) {
+            assertEquals(Isbn.NONE, Isbn.toIsbn13(isbn), isbn);
+        }
+        assertEquals(Isbn.NONE, Isbn.parse13(""));
+        assertEquals(Isbn.NONE, Isbn.parse13("978030640615X"));
+        assertEquals(9780306406157L, Isbn.parse13("9780306406157"));
+    }
+
+    @Test
+    public void packRoundTrips() {
+        for (String isbn : new String[] {"0306406152", "080442957X", "439785960", "1", "",
+                "123456789012345"}) {
+            assertEquals(isbn, Isbn.unpack(Isbn.pack(isbn)));
+        }
+        assertEquals("080442957X", Isbn.unpack(Isbn.pack("080442957x")));
+        assertEquals(Isbn.NONE, Isbn.pack(null));
+        assertEquals(Isbn.NONE, Isbn.pack("1234567890123456"));
+        assertEquals(Isbn.NONE, Isbn.pack("0-306-40615-2"));
+        assertNull(Isbn.unpack(Isbn.NONE));
+    }
+
+    @Test
+    public void everyCatalogRowIsFoundByItsIsbn() throws FileNotFoundException {
+        List<IBook> books = new StreamingBookLoader().loadBooks("books.xml");
+        BookSearcherBackend backend = new BookSearcherBackend();
+        backend.addBooks(books);
+        int shortened = 0;
+        for (IBook book : books) {
+            if (book.getIsbn().length() == 9) {
+                shortened++;
+            }
+            IBook found = backend.getBookByIsbn(book.getIsbn());
+            assertNotNull(found, book.getIsbn());
+            assertEquals(book.getBookId(), found.getBookId(), book.getIsbn());
+            assertEquals(book.getIsbn(), found.getIsbn());
+        }
+        // the rows that lost their leading zero are the ones the restoring is for
+        assertEquals(7084, shortened);
+    }
+
+    @Test
+    public void mapFindsEveryKeyAcrossRehashes() {
+        Random random = new Random(24);
+        LongIntHashMap map = new LongIntHashMap(1);
+        Map<Long, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 50_000; i++) {
+            long key;
+            switch (i % 4) {
+            case 0:
+                key = random.nextLong();
+                break;
+            case 1:
+                // same low bits, only the high half differs
+                key = (long) random.nextInt(1 << 20) << 32;
+                break;
+            case 2:
+                key = -random.nextInt(1000);
+                break;
+            default:
+                key = 9_780_000_000_000L + random.nextInt(1_000_000);
+                break;
+            }
+            int value = random.nextInt(Integer.MAX_VALUE);
+            Integer previous = expected.put(key, value);
+            assertEquals(previous == null ? LongIntHashMap.NONE : previous, map.put(key, value));
+        }
+        assertEquals(expected.size(), map.size());
+        for (Map.Entry<Long, Integer> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), map.get(entry.getKey()));
+        }
+        for (int i = 0; i < 10_000; i++) {
+            long key = random.nextLong();
+            if (!expected.containsKey(key)) {
+                assertEquals(LongIntHashMap.NONE, map.get(key));
+            }
+        }
+    }
+
+    @Test
+    public void mapEdgeKeysAndValues() {
+        LongIntHashMap map = new LongIntHashMap();
+        assertEquals(LongIntHashMap.NONE, map.get(0));
+        assertEquals(LongIntHashMap.NONE, map.put(0, 0));
+        assertEquals(LongIntHashMap.NONE, map.put(Long.MIN_VALUE, Integer.MAX_VALUE - 1));
+        assertEquals(LongIntHashMap.NONE, map.put(Long.MAX_VALUE, 7));
+        assertEquals(0, map.get(0));
+        assertEquals(Integer.MAX_VALUE - 1, map.get(Long.MIN_VALUE));
+        assertEquals(7, map.put(Long.MAX_VALUE, 8));
+        assertEquals(8, map.get(Long.MAX_VALUE));
+        assertEquals(3, map.size());
+        assertThrows(IllegalArgumentException.class, () -> map.put(1, -1));
+    }
+}
@@ -0,0 +1,112 @@
+import java.util.Arrays;
+
+/**
+ * LongIntHashMap maps primitive long keys to non-negative int values, a book id for a bookID or an
+ * ISBN for instance, without boxing either side. It is an open addressing hash table with linear
+ * probing over a long array of keys and an int array of values, kept at most half full, so a
+ * lookup is a hash and a short scan over adjacent slots.
+ */
+public class LongIntHashMap {
+    // value of a missing key, never stored
+    public static final int NONE = -1;
+
+    private long[] keys;
+    // value + 1 in each slot, 0 for an empty slot
+    private int[] values;
+    private int size;
+
+    public LongIntHashMap() {
+        this(16);
+    }
+
+    /**
+     * @param expected number of keys to make room for up front
+     */
+    public LongIntHashMap(int expected) {
+        int capacity = 16;
+        while (capacity < expected * 2) {
+            capacity <<= 1;
+        }
+        this.keys = new long[capacity];
+        this.values = new int[capacity];
+        this.size = 0;
+    }
+
+    /**
+     * @param key key to look up
+     * @return value of the key, NONE if it was never put
+     */
+    public int get(long key) {
+        int mask = keys.length - 1;
+        for (int i = spread(key) & mask; values[i] != 0; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return values[i] - 1;
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * @param key key to store the value under
+     * @param value value, not negative
+     * @return the previous value of the key, NONE if it is new
+     */
+    public int put(long key, int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("value cannot be negative: " + value);
+        }
+        int mask = keys.length - 1;
+        int i = spread(key) & mask;
+        for (; values[i] != 0; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                int previous = values[i] - 1;
+                values[i] = value + 1;
+                return previous;
+            }
+        }
+        keys[i] = key;
+        values[i] = value + 1;
+        size++;
+        // keep the table at most half full so probe sequences stay short
+        if (size * 2 > keys.length) {
+            rehash(keys.length * 2);
+        }
+        return NONE;
+    }
+
+    /**
+     * @return number of keys in the map
+     */
+    public int size() {
+        return size;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[capacity];
+        values = new int[capacity];
+        int mask = capacity - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldValues[j] == 0) {
+                continue;
+            }
+            int i = spread(oldKeys[j]) & mask;
+            while (values[i] != 0) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = oldKeys[j];
+            values[i] = oldValues[j];
+        }
+    }
+
+    private static int spread(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        return "LongIntHashMap(size=" + size + ", capacity=" + keys.length + ")";
+    }
+}
@@ -0,0 +1,224 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * OffHeapBookStore keeps the catalog outside the Java heap, in pages of direct ByteBuffers. Every
+ * book is a fixed size record in the record pages, its title is UTF-8 in the title pages, and the
+ * heap only holds the page objects and the language, author and publisher dictionaries. The garbage
+ * collector never has to trace or copy the catalog, so a large catalog fits a small heap and
+ * pauses do not grow with it.
+ *
+ * Fields are decoded when they are read, getTitle() builds a new String on every call.
+ *
+ * One thread adds books while others may read the books already added. The page tables are
+ * arrays that are copied when they grow and published with a volatile write, so a reader never
+ * sees a table without the pages put into it.
+ */
+public class OffHeapBookStore implements IBookStore {
+    // size of one page, direct memory is allocated a page at a time
+    private static final int PAGE_BYTES = 1 << 20;
+
+    // record layout
+    private static final int RATING = 0;          // double
+    private static final int PAGES = 8;           // int
+    private static final int RATING_COUNT = 12;   // int
+    private static final int REVIEWS = 16;        // int
+    private static final int LANGUAGE = 20;       // int, id in Book.LANGUAGES
+    private static final int AUTHOR = 24;         // int, id in Book.AUTHORS
+    private static final int TITLE_PAGE = 28;     // int, -1 for a null title
+    private static final int TITLE_OFFSET = 32;   // int
+    private static final int TITLE_LENGTH = 36;   // int, bytes
+    private static final int PUBLISHER = 40;      // int, id in Book.PUBLISHERS
+    private static final int BOOK_ID = 44;        // int
+    private static final int ISBN = 48;           // long, packed by Isbn.pack
+    private static final int ISBN13 = 56;         // long
+    private static final int PUBLICATION_DATE = 64; // int, epoch day
+    // 4 bytes of padding keep the longs of every record 8 byte aligned
+    private static final int RECORD_BYTES = 72;
+    private static final int RECORDS_PER_PAGE = PAGE_BYTES / RECORD_BYTES;
+
+    private volatile ByteBuffer[] records;
+    private int recordPages;
+    private volatile ByteBuffer[] titles;
+    private int titlePages;
+    // where the next title goes in the last title page
+    private int titleEnd;
+    private int size;
+
+    public OffHeapBookStore() {
+        this.records = new ByteBuffer[16];
+        this.recordPages = 0;
+        this.titles = new ByteBuffer[16];
+        this.titlePages = 0;
+        this.titleEnd = 0;
+        this.size = 0;
+    }
+
+    @Override
+    public int add(IBook book) {
+        int id = size;
+        if (id % RECORDS_PER_PAGE == 0) {
+            ByteBuffer fresh = ByteBuffer.allocateDirect(RECORDS_PER_PAGE * RECORD_BYTES);
+            records = append(records, recordPages++, fresh);
+        }
+        ByteBuffer page = records[recordPages - 1];
+        int at = (id % RECORDS_PER_PAGE) * RECORD_BYTES;
+        page.putDouble(at + RATING, book.getRating());
+        page.putInt(at + PAGES, book.getNumberOfPages());
+        page.putInt(at + RATING_COUNT, book.getTotalRating());
+        page.putInt(at + REVIEWS, book.getTotalReviews());
+        page.putInt(at + LANGUAGE, book.getLanguageId());
+        page.putInt(at + AUTHOR, Book.AUTHORS.encode(book.getAuthor()));
+        page.putInt(at + PUBLISHER, Book.PUBLISHERS.encode(book.getPublisher()));
+        page.putInt(at + BOOK_ID, book.getBookId());
+        page.putLong(at + ISBN, Isbn.pack(book.getIsbn()));
+        page.putLong(at + ISBN13, book.getIsbn13());
+        page.putInt(at + PUBLICATION_DATE, book.getPublicationDate());
+        if (book.getTitle() == null) {
+            page.putInt(at + TITLE_PAGE, -1);
+        } else {
+            byte[] title = book.getTitle().getBytes(StandardCharsets.UTF_8);
+            if (titlePages == 0 || titleEnd + title.length > titles[titlePages - 1].capacity()) {
+                // a title longer than a page gets a page of its own
+                ByteBuffer fresh = ByteBuffer.allocateDirect(Math.max(PAGE_BYTES, title.length));
+                titles = append(titles, titlePages++, fresh);
+                titleEnd = 0;
+            }
+            page.putInt(at + TITLE_PAGE, titlePages - 1);
+            page.putInt(at + TITLE_OFFSET, titleEnd);
+            page.putInt(at + TITLE_LENGTH, title.length);
+            titles[titlePages - 1].put(titleEnd, title);
+            titleEnd += title.length;
+        }
+        size++;
+        return id;
+    }
+
+    /**
+     * put the page at the index of the table, the caller publishes the returned table
+     * @return the table, a copy twice the size if it was full
+     */
+    private static ByteBuffer[] append(ByteBuffer[] table, int index, ByteBuffer page) {
+        if (index == table.length) {
+            table = Arrays.copyOf(table, table.length * 2);
+        }
+        table[index] = page;
+        return table;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the record page holding the book, record(id) is its offset in the page
+     */
+    private ByteBuffer page(int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("id " + id + " size " + size);
+        }
+        return records[id / RECORDS_PER_PAGE];
+    }
+
+    private static int record(int id) {
+        return (id % RECORDS_PER_PAGE) * RECORD_BYTES;
+    }
+
+    @Override
+    public String getTitle(int id) {
+        ByteBuffer page = page(id);
+        int at = record(id);
+        int titlePage = page.getInt(at + TITLE_PAGE);
+        if (titlePage < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[page.getInt(at + TITLE_LENGTH)];
+        // absolute bulk get, safe for concurrent readers
+        titles[titlePage].get(page.getInt(at + TITLE_OFFSET), bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String getAuthor(int id) {
+        return Book.AUTHORS.decode(page(id).getInt(record(id) + AUTHOR));
+    }
+
+    @Override
+    public String getPublisher(int id) {
+        return Book.PUBLISHERS.decode(page(id).getInt(record(id) + PUBLISHER));
+    }
+
+    @Override
+    public int getBookId(int id) {
+        return page(id).getInt(record(id) + BOOK_ID);
+    }
+
+    @Override
+    public String getIsbn(int id) {
+        return Isbn.unpack(page(id).getLong(record(id) + ISBN));
+    }
+
+    @Override
+    public long getIsbn13(int id) {
+        return page(id).getLong(record(id) + ISBN13);
+    }
+
+    @Override
+    public int getPublicationDate(int id) {
+        return page(id).getInt(record(id) + PUBLICATION_DATE);
+    }
+
+    @Override
+    public double getRating(int id) {
+        return page(id).getDouble(record(id) + RATING);
+    }
+
+    @Override
+    public int getNumberOfPages(int id) {
+        return page(id).getInt(record(id) + PAGES);
+    }
+
+    @Override
+    public int getTotalRating(int id) {
+        return page(id).getInt(record(id) + RATING_COUNT);
+    }
+
+    @Override
+    public int getTotalReviews(int id) {
+        return page(id).getInt(record(id) + REVIEWS);
+    }
+
+    @Override
+    public int getLanguageId(int id) {
+        return page(id).getInt(record(id) + LANGUAGE);
+    }
+
+    @Override
+    public IBook get(int id) {
+        page(id);
+        return new BookView(this, id);
+    }
+
+    /**
+     * pages are allocated at their full size, there is nothing to release
+     */
+    @Override
+    public void trim() {
+    }
+
+    /**
+     * @return bytes of direct memory the store has allocated
+     */
+    public long offHeapBytes() {
+        long bytes = 0;
+        for (int i = 0; i < recordPages; i++) {
+            bytes += records[i].capacity();
+        }
+        for (int i = 0; i < titlePages; i++) {
+            bytes += titles[i].capacity();
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,281 @@
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+
+import javax.xml.stream.XMLStreamException;
+
+/**
+ * ParallelBookLoader splits books.xml at <Record> boundaries and parses the chunks on a
+ * fork-join pool with the same StAX row reader StreamingBookLoader uses. Chunk results are
+ * joined left to right, so the books come out in exactly the order of a single-threaded load.
+ */
+public class ParallelBookLoader implements IBookLoader {
+
+    private static final byte[] RECORD_OPEN = "<Record>".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] RECORDS_CLOSE = "</Records>".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ENCODING_ATTR = "encoding=".getBytes(StandardCharsets.US_ASCII);
+    // every chunk is wrapped in a root element so it is a well formed document on its own
+    private static final byte[] CHUNK_PREFIX = "<Records>".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CHUNK_SUFFIX = "</Records>".getBytes(StandardCharsets.US_ASCII);
+
+    private final ForkJoinPool pool;
+    private final int chunks;
+
+    /**
+     * parse on the common pool, a few chunks per worker so uneven chunks balance out
+     */
+    public ParallelBookLoader() {
+        this(ForkJoinPool.commonPool(), ForkJoinPool.commonPool().getParallelism() * 4);
+    }
+
+    /**
+     * @param pool pool the chunks are parsed on
+     * @param chunks number of chunks the file is split into
+     */
+    public ParallelBookLoader(ForkJoinPool pool, int chunks) {
+        if (pool == null || chunks < 1) {
+            throw new IllegalArgumentException("need a pool and at least one chunk");
+        }
+        this.pool = pool;
+        this.chunks = chunks;
+    }
+
+    /**
+     * load all the books of the file, parsing the chunks in parallel
+     * @param filepath is relative to executable's working directory
+     * @return a list of book objects in file order
+     * @throws IllegalStateException if the file cannot be read or any chunk is not a valid
+     *         catalog, the same errors StreamingBookLoader reports
+     */
+    @Override
+    public List<IBook> loadBooks(String filepath) throws FileNotFoundException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filepath), StandardOpenOption.READ)) {
+            MappedByteBuffer file = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            String encoding = declaredEncoding(file);
+            int[] bounds = split(file);
+            return pool.invoke(new ChunkTask(file, encoding, bounds, 0, bounds.length - 1));
+        } catch (NoSuchFileException e) {
+            throw new FileNotFoundException(filepath);
+        } catch (IOException e) {
+            throw new IllegalStateException("could not read " + filepath, e);
+        } catch (ChunkException e) {
+            throw new IllegalStateException("could not parse " + filepath + ": " + e.getMessage(),
+                    e.getCause());
+        }
+    }
+
+    /**
+     * parse the file in parallel and merge the books into the backend indexes in file order
+     * @param filepath is relative to executable's working directory
+     * @param backend backend every book is added to
+     * @return number of books loaded
+     * @throws IllegalStateException if the file cannot be read or is not a valid catalog
+     */
+    public int loadBooks(String filepath, IBookSearcherBackend backend) throws FileNotFoundException {
+        return loadBooks(filepath, backend::addBook);
+    }
+
+    /**
+     * parse the file in parallel and hand every book to the sink in file order
+     * @param filepath is relative to executable's working directory
+     * @param sink receives every book in file order
+     * @return number of books loaded
+     * @throws IllegalStateException if the file cannot be read or is not a valid catalog, the
+     *         sink receives nothing then
+     */
+    public int loadBooks(String filepath, Consumer<? super IBook> sink) throws FileNotFoundException {
+        List<IBook> books = loadBooks(filepath);
+        // the index trees are single writer, so parsing is the parallel part and the merge is
+        // one ordered pass
+        for (IBook book : books) {
+            sink.accept(book);
+        }
+        return books.size();
+    }
+
+    /**
+     * find the chunk boundaries, every boundary except the last one is the offset of a <Record>
+     * @param file the whole mapped file
+     * @return sorted offsets, chunk i is [bounds[i], bounds[i + 1])
+     * @throws ChunkException if the file has no closing </Records>, it was cut off
+     */
+    private int[] split(ByteBuffer file) {
+        int first = indexOf(file, RECORD_OPEN, 0);
+        int end = lastIndexOf(file, RECORDS_CLOSE);
+        if (end < 0) {
+            throw new ChunkException("no closing </Records>, the file is truncated", null);
+        }
+        if (first < 0 || end < first) {
+            return new int[] {0, 0};
+        }
+        int step = Math.max(1, (end - first) / chunks);
+        List<Integer> bounds = new ArrayList<>();
+        bounds.add(first);
+        int from = first + step;
+        while (from < end) {
+            int next = indexOf(file, RECORD_OPEN, from);
+            if (next < 0 || next >= end) {
+                break;
+            }
+            bounds.add(next);
+            from = next + step;
+        }
+        bounds.add(end);
+        int[] result = new int[bounds.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = bounds.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * read the encoding out of the xml declaration, chunks lose the declaration when they are cut
+     * @param file the whole mapped file
+     * @return the declared encoding, UTF-8 when none is declared
+     */
+    private static String declaredEncoding(ByteBuffer file) {
+        int close = indexOf(file, "?>".getBytes(StandardCharsets.US_ASCII), 0);
+        int at = indexOf(file, ENCODING_ATTR, 0);
+        if (close < 0 || at < 0 || at > close) {
+            return "UTF-8";
+        }
+        int start = at + ENCODING_ATTR.length;
+        byte quote = file.get(start);
+        StringBuilder sb = new StringBuilder();
+        for (int i = start + 1; i < close && file.get(i) != quote; i++) {
+            sb.append((char) file.get(i));
+        }
+        return sb.toString();
+    }
+
+    private static int indexOf(ByteBuffer file, byte[] target, int from) {
+        int last = file.limit() - target.length;
+        outer:
+        for (int i = Math.max(0, from); i <= last; i++) {
+            for (int j = 0; j < target.length; j++) {
+                if (file.get(i + j) != target[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    private static int lastIndexOf(ByteBuffer file, byte[] target) {
+        outer:
+        for (int i = file.limit() - target.length; i >= 0; i--) {
+            for (int j = 0; j < target.length; j++) {
+                if (file.get(i + j) != target[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Parses the chunks [lo, hi) by splitting the range in half until one chunk is left, the left
+     * half is always joined first so the list keeps file order.
+     */
+    @SuppressWarnings("serial")
+    private static class ChunkTask extends RecursiveTask<List<IBook>> {
+        private final ByteBuffer file;
+        private final String encoding;
+        private final int[] bounds;
+        private final int lo;
+        private final int hi;
+
+        ChunkTask(ByteBuffer file, String encoding, int[] bounds, int lo, int hi) {
+            this.file = file;
+            this.encoding = encoding;
+            this.bounds = bounds;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected List<IBook> compute() {
+            if (hi - lo <= 1) {
+                return parse();
+            }
+            int mid = (lo + hi) >>> 1;
+            ChunkTask right = new ChunkTask(file, encoding, bounds, mid, hi);
+            right.fork();
+            List<IBook> result = new ChunkTask(file, encoding, bounds, lo, mid).compute();
+            result.addAll(right.join());
+            return result;
+        }
+
+        private List<IBook> parse() {
+            List<IBook> books = new ArrayList<>();
+            if (hi <= lo) {
+                return books;
+            }
+            ByteBuffer slice = file.duplicate();
+            slice.limit(bounds[hi]).position(bounds[lo]);
+            InputStream chunk = new SequenceInputStream(new ByteArrayInputStream(CHUNK_PREFIX),
+                    new SequenceInputStream(new ByteBufferInputStream(slice.slice()),
+                            new ByteArrayInputStream(CHUNK_SUFFIX)));
+            try {
+                // only the first chunk can start with the column name row
+                StreamingBookLoader.readRows(chunk, encoding, lo == 0, books::add);
+            } catch (XMLStreamException e) {
+                throw new ChunkException("chunk " + lo + " at byte " + bounds[lo], e);
+            }
+            return books;
+        }
+    }
+
+    /**
+     * A chunk that could not be parsed, carried out of the pool and reported as the failure of
+     * the whole file.
+     */
+    @SuppressWarnings("serial")
+    private static class ChunkException extends RuntimeException {
+        ChunkException(String message, XMLStreamException cause) {
+            super(message, cause);
+        }
+    }
+
+    /**
+     * InputStream over a slice of the mapped file, so chunks are never copied onto the heap
+     */
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+    }
+}
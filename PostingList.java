@@ -0,0 +1,129 @@
+import java.util.Arrays;
+
+/**
+ * PostingList is the sorted list of book ids a term of the inverted index points to. Ids are
+ * kept in a growable int array in ascending order, books get their id in load order so adding
+ * a book is an append at the end.
+ */
+public class PostingList {
+    private static final int[] EMPTY = new int[0];
+
+    private int[] ids;
+    private int size;
+
+    public PostingList() {
+        this.ids = EMPTY;
+        this.size = 0;
+    }
+
+    private PostingList(int[] ids, int size) {
+        this.ids = ids;
+        this.size = size;
+    }
+
+    /**
+     * add the id of a book, ids have to come in ascending order
+     * @param id book id, not smaller than the last id added
+     * @return true if the id was added, false if it is already the last id of the list
+     */
+    public boolean add(int id) {
+        if (size > 0) {
+            if (ids[size - 1] == id) {
+                return false;
+            }
+            if (ids[size - 1] > id) {
+                throw new IllegalArgumentException("ids must be added in ascending order");
+            }
+        }
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, Math.max(4, size + (size >> 1)));
+        }
+        ids[size++] = id;
+        return true;
+    }
+
+    /**
+     * @return number of ids in the list
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param index position in the list
+     * @return the id at that position
+     */
+    public int get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index " + index + " size " + size);
+        }
+        return ids[index];
+    }
+
+    /**
+     * @return true if the id is in the list
+     */
+    public boolean contains(int id) {
+        return Arrays.binarySearch(ids, 0, size, id) >= 0;
+    }
+
+    /**
+     * @return copy of the ids in ascending order
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(ids, size);
+    }
+
+    /**
+     * release the spare capacity left over from growing, used once loading is finished
+     */
+    public void trim() {
+        if (ids.length != size) {
+            ids = size == 0 ? EMPTY : Arrays.copyOf(ids, size);
+        }
+    }
+
+    /**
+     * intersect two posting lists, walks the shorter list and gallops through the longer one so
+     * a rare term against a common term costs about the length of the rare one
+     * @param a first list
+     * @param b second list
+     * @return the ids contained in both lists in ascending order
+     */
+    public static PostingList intersect(PostingList a, PostingList b) {
+        if (a.size > b.size) {
+            PostingList t = a;
+            a = b;
+            b = t;
+        }
+        int[] out = new int[a.size];
+        int n = 0;
+        int from = 0;
+        for (int i = 0; i < a.size && from < b.size; i++) {
+            int id = a.ids[i];
+            from = gallop(b.ids, from, b.size, id);
+            if (from < b.size && b.ids[from] == id) {
+                out[n++] = id;
+                from++;
+            }
+        }
+        return new PostingList(n == 0 ? EMPTY : out, n);
+    }
+
+    /**
+     * find the first position at or after from whose id is not smaller than the target
+     */
+    private static int gallop(int[] ids, int from, int to, int target) {
+        int step = 1;
+        int hi = from;
+        while (hi < to && ids[hi] < target) {
+            from = hi + 1;
+            hi += step;
+            step <<= 1;
+        }
+        hi = Math.min(hi, to);
+        // ids[from - 1] < target <= ids[hi] (or hi == to), binary search in between
+        int pos = Arrays.binarySearch(ids, from, hi, target);
+        return pos >= 0 ? pos : -pos - 1;
+    }
+}
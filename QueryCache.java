@@ -0,0 +1,373 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+/**
+ * QueryCache is a bounded cache of search results. Every entry weighs one plus the number of books
+ * in its result, and the cache evicts least recently used entries once the total weight is over
+ * its budget. New entries go through a TinyLFU admission check first: a small count-min sketch
+ * counts how often every key has been asked for, and a new entry only displaces the LRU victim if
+ * its key has been asked for more often, so one-off queries cannot flush the popular ones.
+ *
+ * Entries say which books would change their result, either through tags (a title word, a title
+ * word prefix, a rating) that are looked up directly when a book is added, or through a predicate
+ * that is checked against every added book.
+ *
+ * Lookups never lock: results sit in a concurrent map, and a hit or miss only drops its key into
+ * one of a few small ring buffers, picked by thread so readers on different cores rarely share
+ * one. The buffers are lossy, a full slot is overwritten, which is fine for popularity counts.
+ * The recency order, the sketch, the tags and the weight are only touched under the lock, by
+ * put and invalidate and whenever a buffer wraps around and the lock happens to be free; all of
+ * them first replay the buffered accesses.
+ */
+public class QueryCache {
+    private static final int SKETCH_DEPTH = 4;
+    // odd multipliers, one per sketch row
+    private static final int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+    // the sketch is halved after this many recorded accesses per counter, so old popularity fades
+    private static final int SAMPLES_PER_COUNTER = 10;
+    // read buffers, a power of two, and the accesses each holds before it is drained
+    private static final int BUFFERS = 8;
+    private static final int BUFFER_SIZE = 32;
+    // ints between two buffer positions, keeps them off each other's cache lines
+    private static final int PAD = 16;
+
+    /**
+     * A cached result and the dependencies that invalidate it.
+     */
+    private static class Entry {
+        final String key;
+        final List<IBook> value;
+        final int weight;
+        final List<String> tags;
+        final Predicate<IBook> affectedBy;
+
+        Entry(String key, List<IBook> value, List<String> tags, Predicate<IBook> affectedBy) {
+            this.key = key;
+            this.value = value;
+            this.weight = 1 + value.size();
+            this.tags = tags;
+            this.affectedBy = affectedBy;
+        }
+    }
+
+    private final long maxWeight;
+    // what lookups read, changed under the lock together with the policy structures
+    private final Map<String, Entry> entries;
+    private final ReentrantLock lock;
+    // accesses since the last drain, and the next position to write in every buffer
+    private final AtomicReferenceArray<String> buffers;
+    private final AtomicIntegerArray positions;
+    // the recency order of the entries, least recently used first, only used under the lock
+    private final LinkedHashMap<String, Entry> recency;
+    private final Map<String, Set<Entry>> byTag;
+    // entries without tags, checked one by one when a book is added
+    private final Set<Entry> untagged;
+    private final int[][] sketch;
+    private final int sketchMask;
+    private int samples;
+    private long weight;
+    private volatile long version;
+
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private long evictions;
+    private long rejections;
+    private long invalidations;
+
+    /**
+     * @param maxWeight the most entries plus cached books the cache holds
+     */
+    public QueryCache(long maxWeight) {
+        if (maxWeight < 1) {
+            throw new IllegalArgumentException("cache needs a positive weight budget");
+        }
+        this.maxWeight = maxWeight;
+        this.entries = new ConcurrentHashMap<>();
+        this.lock = new ReentrantLock();
+        this.buffers = new AtomicReferenceArray<>(BUFFERS * BUFFER_SIZE);
+        this.positions = new AtomicIntegerArray(BUFFERS * PAD);
+        this.recency = new LinkedHashMap<>(16, 0.75f, true);
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+        this.byTag = new HashMap<>();
+        this.untagged = new HashSet<>();
+        int width = Integer.highestOneBit((int) Math.min(1 << 20, Math.max(64, maxWeight)) - 1) << 1;
+        this.sketch = new int[SKETCH_DEPTH][width];
+        this.sketchMask = width - 1;
+    }
+
+    /**
+     * look a key up without locking, the access is buffered for admission and recency
+     * @param key normalized query
+     * @return the cached result, null on a miss
+     */
+    public List<IBook> get(String key) {
+        Entry entry = entries.get(key);
+        buffer(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.value;
+    }
+
+    /**
+     * drop the access into the buffer of the calling thread, and drain the buffers once it
+     * wraps around if no one else holds the lock
+     */
+    private void buffer(String key) {
+        int buffer = (int) (Thread.currentThread().getId() * 0x9E3779B97F4A7C15L >>> 32) & (BUFFERS - 1);
+        int position = positions.getAndIncrement(buffer * PAD);
+        buffers.lazySet(buffer * BUFFER_SIZE + (position & (BUFFER_SIZE - 1)), key);
+        if ((position & (BUFFER_SIZE - 1)) == BUFFER_SIZE - 1 && lock.tryLock()) {
+            try {
+                drain();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * replay the buffered accesses into the sketch and the recency order, under the lock
+     */
+    private void drain() {
+        for (int i = 0; i < buffers.length(); i++) {
+            String key = buffers.getAndSet(i, null);
+            if (key != null) {
+                record(key);
+                // moves the entry to the most recently used end
+                recency.get(key);
+            }
+        }
+    }
+
+    /**
+     * the version changes whenever books are added, a result computed before an add must not be
+     * cached after it
+     * @return the current version
+     */
+    public long version() {
+        return version;
+    }
+
+    /**
+     * cache a result unless books were added since it was computed or admission rejects it
+     * @param key normalized query
+     * @param value the result, not null, kept as is so it must not be modified afterwards
+     * @param computedAt version() read before the result was computed
+     * @param tags title words, prefixes or ratings whose books change the result
+     * @param affectedBy check for added books that change the result, used when tags is empty
+     */
+    public void put(String key, List<IBook> value, long computedAt, List<String> tags,
+            Predicate<IBook> affectedBy) {
+        lock.lock();
+        try {
+            if (computedAt != version) {
+                return;
+            }
+            drain();
+            Entry entry = new Entry(key, value, tags, affectedBy);
+            if (entry.weight > maxWeight) {
+                rejections++;
+                return;
+            }
+            remove(key);
+            // make room, but only at the cost of victims that are asked for less often
+            while (weight + entry.weight > maxWeight) {
+                Entry victim = recency.values().iterator().next();
+                if (frequency(victim.key) >= frequency(key)) {
+                    rejections++;
+                    return;
+                }
+                remove(victim.key);
+                evictions++;
+            }
+            recency.put(key, entry);
+            entries.put(key, entry);
+            weight += entry.weight;
+            if (tags.isEmpty()) {
+                untagged.add(entry);
+            }
+            for (String tag : tags) {
+                byTag.computeIfAbsent(tag, t -> new HashSet<>()).add(entry);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * drop every entry whose result changes because the book was added
+     * @param book the added book
+     * @param tagsOf gives the tags of the book (its title words, their prefixes and its rating),
+     *               only called when there is something cached
+     */
+    public void invalidate(IBook book, Function<IBook, Iterable<String>> tagsOf) {
+        lock.lock();
+        try {
+            version++;
+            if (recency.isEmpty()) {
+                return;
+            }
+            drain();
+            List<String> stale = new ArrayList<>();
+            for (String tag : tagsOf.apply(book)) {
+                Set<Entry> tagged = byTag.get(tag);
+                if (tagged != null) {
+                    for (Entry entry : tagged) {
+                        if (entry.affectedBy.test(book)) {
+                            stale.add(entry.key);
+                        }
+                    }
+                }
+            }
+            for (Entry entry : untagged) {
+                if (entry.affectedBy.test(book)) {
+                    stale.add(entry.key);
+                }
+            }
+            for (String key : stale) {
+                if (remove(key)) {
+                    invalidations++;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean remove(String key) {
+        Entry entry = recency.remove(key);
+        if (entry == null) {
+            return false;
+        }
+        entries.remove(key);
+        weight -= entry.weight;
+        untagged.remove(entry);
+        for (String tag : entry.tags) {
+            Set<Entry> tagged = byTag.get(tag);
+            tagged.remove(entry);
+            if (tagged.isEmpty()) {
+                byTag.remove(tag);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * count one access of the key in the count-min sketch, under the lock
+     */
+    private void record(String key) {
+        int h = spread(key.hashCode());
+        for (int row = 0; row < SKETCH_DEPTH; row++) {
+            int[] counters = sketch[row];
+            int i = index(h, row);
+            if (counters[i] < Integer.MAX_VALUE) {
+                counters[i]++;
+            }
+        }
+        if (++samples >= SAMPLES_PER_COUNTER * sketch[0].length) {
+            // age every counter so popularity reflects recent traffic
+            for (int[] counters : sketch) {
+                for (int i = 0; i < counters.length; i++) {
+                    counters[i] >>>= 1;
+                }
+            }
+            samples = 0;
+        }
+    }
+
+    /**
+     * @return estimated number of recent accesses of the key
+     */
+    private int frequency(String key) {
+        int h = spread(key.hashCode());
+        int min = Integer.MAX_VALUE;
+        for (int row = 0; row < SKETCH_DEPTH; row++) {
+            min = Math.min(min, sketch[row][index(h, row)]);
+        }
+        return min;
+    }
+
+    private int index(int h, int row) {
+        int x = h * SEEDS[row];
+        return (x ^ (x >>> 16)) & sketchMask;
+    }
+
+    private static int spread(int h) {
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        return h ^ (h >>> 13);
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return locked(() -> evictions);
+    }
+
+    public long getRejections() {
+        return locked(() -> rejections);
+    }
+
+    public long getInvalidations() {
+        return locked(() -> invalidations);
+    }
+
+    /**
+     * @return number of cached queries
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return total weight of the cached queries
+     */
+    public long weight() {
+        return locked(() -> weight);
+    }
+
+    private long locked(LongSupplier read) {
+        lock.lock();
+        try {
+            return read.getAsLong();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        lock.lock();
+        try {
+            return "QueryCache{entries=" + entries.size() + ", weight=" + weight + "/" + maxWeight
+                    + ", hits=" + hits.sum() + ", misses=" + misses.sum() + ", evictions="
+                    + evictions + ", rejections=" + rejections + ", invalidations=" + invalidations
+                    + "}";
+        } finally {
+            lock.unlock();
+        }
+    }
+}
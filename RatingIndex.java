@@ -0,0 +1,111 @@
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * RatingIndex maps ratings to book ids without boxing. Ratings have two decimal places, so a
+ * rating is stored as the int key rating * 100 and every key owns one bucket, a PostingList of
+ * the ids of the books with that rating. Buckets sit in a flat array indexed by the key, an exact
+ * lookup is one array access and a range is a walk over consecutive buckets.
+ */
+public class RatingIndex {
+    // ratings are out of 5, keys 0..500
+    private static final int DEFAULT_MAX_KEY = 500;
+    private static final double SCALE = 100.0;
+    private static final double EPSILON = 1e-6;
+
+    private PostingList[] buckets;
+    private int size;
+
+    public RatingIndex() {
+        this.buckets = new PostingList[DEFAULT_MAX_KEY + 1];
+        this.size = 0;
+    }
+
+    /**
+     * add the id of a book with this rating, ids have to be added in ascending order
+     * @param rating rating of the book, at most two decimal places
+     * @param id book id
+     */
+    public void add(double rating, int id) {
+        int key = (int) Math.round(rating * SCALE);
+        if (key < 0) {
+            throw new IllegalArgumentException("rating cannot be negative: " + rating);
+        }
+        if (key >= buckets.length) {
+            buckets = Arrays.copyOf(buckets, key + 1);
+        }
+        if (buckets[key] == null) {
+            buckets[key] = new PostingList();
+        }
+        if (buckets[key].add(id)) {
+            size++;
+        }
+    }
+
+    /**
+     * @return number of ids in the index
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param rating the exact rating
+     * @return ids of the books with exactly this rating, null if there are none
+     */
+    public PostingList get(double rating) {
+        double scaled = rating * SCALE;
+        long key = Math.round(scaled);
+        // a rating with more than two decimals cannot match any book
+        if (Math.abs(scaled - key) > EPSILON || key < 0 || key >= buckets.length) {
+            return null;
+        }
+        PostingList bucket = buckets[(int) key];
+        return bucket == null || bucket.size() == 0 ? null : bucket;
+    }
+
+    /**
+     * iterate the ids of all books whose rating is between min and max, lowest rating first and
+     * in ascending id order within a rating; buckets are only visited as the caller reads
+     * @param min lowest rating, inclusive
+     * @param max highest rating, inclusive
+     * @return lazy iterator over the ids in range
+     */
+    public PrimitiveIterator.OfInt range(double min, double max) {
+        int lo = (int) Math.max(0, Math.ceil(min * SCALE - EPSILON));
+        int hi = (int) Math.min(buckets.length - 1, Math.floor(max * SCALE + EPSILON));
+        return new PrimitiveIterator.OfInt() {
+            int key = lo;
+            int pos = 0;
+
+            @Override
+            public boolean hasNext() {
+                while (key <= hi && (buckets[key] == null || pos >= buckets[key].size())) {
+                    key++;
+                    pos = 0;
+                }
+                return key <= hi;
+            }
+
+            @Override
+            public int nextInt() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException("no more books in the rating range");
+                }
+                return buckets[key].get(pos++);
+            }
+        };
+    }
+
+    /**
+     * release the spare capacity of every bucket once loading is finished
+     */
+    public void trim() {
+        for (PostingList bucket : buckets) {
+            if (bucket != null) {
+                bucket.trim();
+            }
+        }
+    }
+}
@@ -75,7 +75,7 @@ public class RedBlackTree<V extends Comparable<V>, T> implements SortedCollectio
       return true;
     } // add first node to an empty tree
     else {
-      boolean returnValue = insertHelper(newNode, root); // recursively insert into subtree
+      boolean returnValue = insertHelper(newNode, root); // descend into the tree
       if (returnValue)
         size++;
       else
@@ -87,7 +87,59 @@ public class RedBlackTree<V extends Comparable<V>, T> implements SortedCollectio
   }
 
   /**
-   * This helper method is to append into the list
+   * Builds the tree from keys that are already sorted, in O(n) instead of n inserts. The middle key
+   * of every range becomes the root of its subtree, so all leaves are on the two lowest levels;
+   * the nodes on the lowest level of an incomplete tree are red and all other nodes black, which
+   * gives every path the same number of black nodes and no red node a red child. Every key is
+   * inserted with its data as if by insert, so size() grows by the number of keys.
+   *
+   * @param keys strictly ascending keys, no nulls
+   * @param data the data of each key, at the same index
+   * @throws IllegalStateException    if the tree is not empty
+   * @throws IllegalArgumentException if the keys are not strictly ascending or the lists differ in
+   *                                  length
+   */
+  public void bulkLoad(List<V> keys, List<T> data) {
+    if (root != null)
+      throw new IllegalStateException("bulkLoad needs an empty tree");
+    if (keys.size() != data.size())
+      throw new IllegalArgumentException("every key needs its data");
+    for (int i = 0; i < keys.size(); i++) {
+      if (keys.get(i) == null)
+        throw new NullPointerException("This RedBlackTree cannot store null references.");
+      if (i > 0 && keys.get(i - 1).compareTo(keys.get(i)) >= 0)
+        throw new IllegalArgumentException("keys must be strictly ascending");
+    }
+    if (keys.isEmpty())
+      return;
+    // depth of the lowest level, it is only full when size + 1 is a power of two
+    int redDepth = 31 - Integer.numberOfLeadingZeros(keys.size());
+    boolean full = Integer.bitCount(keys.size() + 1) == 1;
+    root = build(keys, data, 0, keys.size() - 1, 0, full ? -1 : redDepth, null);
+    size += keys.size();
+  }
+
+  /**
+   * builds the subtree of keys low..high
+   *
+   * @return root of the subtree, null for an empty range
+   */
+  private Node<V, T> build(List<V> keys, List<T> data, int low, int high, int depth,
+      int redDepth, Node<V, T> parent) {
+    if (low > high)
+      return null;
+    int mid = (low + high) >>> 1;
+    Node<V, T> node = new Node<V, T>(keys.get(mid), data.get(mid));
+    node.parent = parent;
+    node.blackHeight = depth == redDepth ? 0 : 1;
+    node.leftChild = build(keys, data, low, mid - 1, depth + 1, redDepth, node);
+    node.rightChild = build(keys, data, mid + 1, high, depth + 1, redDepth, node);
+    return node;
+  }
+
+  /**
+   * This helper method is to append into the list. An IBucket appends in O(1) per value, any other
+   * list first removes the values it already holds, which costs the whole list.
    *
    * @param newNode is the new node that is being added to this tree
    * @param oldNode is the reference to a node within this tree which the newNode should be inserted
@@ -97,13 +149,18 @@ public class RedBlackTree<V extends Comparable<V>, T> implements SortedCollectio
   private void append(Node<V, T> newNode, Node<V, T> oldNode) {
     List newNodeList = newNode.data;
     List oldNodeList = oldNode.data;
+    if (oldNodeList instanceof IBucket) {
+      ((IBucket) oldNodeList).append(newNodeList);
+      return;
+    }
     oldNodeList.removeAll(newNodeList); // remove all duplicated elements
     oldNodeList.addAll(newNodeList); // create a list with non-repeating elements
   }
 
   /**
-   * Recursive helper method to find the subtree with a null reference in the position that the
-   * newNode should be inserted, and then extend this tree by the newNode in that position.
+   * Helper method that descends from the subtree to the null reference in the position that the
+   * newNode should be inserted, and then extends this tree by the newNode in that position. The
+   * descent is a loop, so deep trees cost no stack frames.
    *
    * @param newNode is the new node that is being added to this tree
    * @param subtree is the reference to a node within this tree which the newNode should be inserted
@@ -111,38 +168,29 @@ public class RedBlackTree<V extends Comparable<V>, T> implements SortedCollectio
    * @return true is the value was inserted in subtree, false if not
    */
   private boolean insertHelper(Node<V, T> newNode, Node<V, T> subtree) {
-    int compare = newNode.key.compareTo(subtree.key);
-    // do not allow duplicate keys and values to be stored within this tree
-    if (compare == 0 && newNode.data.equals(subtree.data))
-      return false;
-    // if the element with the same key but different value, append into the list
-    if (compare == 0) {
-      append(newNode, subtree);
-      return true;
-    }
-
-    // store newNode within left subtree of subtree
-    else if (compare < 0) {
-      if (subtree.leftChild == null) { // left subtree empty, add here
-        subtree.leftChild = newNode;
-        newNode.parent = subtree;
-        enforceRBTreePropertiesAfterInsert(newNode);
+    while (true) {
+      int compare = newNode.key.compareTo(subtree.key);
+      // do not allow duplicate keys and values to be stored within this tree
+      if (compare == 0 && newNode.data.equals(subtree.data))
+        return false;
+      // if the element with the same key but different value, append into the list
+      if (compare == 0) {
+        append(newNode, subtree);
         return true;
-        // otherwise continue recursive search for location to insert
-      } else
-        return insertHelper(newNode, subtree.leftChild);
-    }
-
-    // store newNode within the right subtree of subtree
-    else {
-      if (subtree.rightChild == null) { // right subtree empty, add here
-        subtree.rightChild = newNode;
+      }
+      // store newNode within the left or right subtree of subtree
+      Node<V, T> child = compare < 0 ? subtree.leftChild : subtree.rightChild;
+      if (child == null) { // subtree empty, add here
+        if (compare < 0)
+          subtree.leftChild = newNode;
+        else
+          subtree.rightChild = newNode;
         newNode.parent = subtree;
         enforceRBTreePropertiesAfterInsert(newNode);
         return true;
-        // otherwise continue recursive search for location to insert
-      } else
-        return insertHelper(newNode, subtree.rightChild);
+      }
+      // otherwise continue the descent for location to insert
+      subtree = child;
     }
   }
 
@@ -156,81 +204,85 @@ public class RedBlackTree<V extends Comparable<V>, T> implements SortedCollectio
    * @param newNode the new node being inserted into the tree
    */
   protected void enforceRBTreePropertiesAfterInsert(Node<V, T> newNode) {
-    Node<V, T> parent = newNode.parent;
-    if (parent == null) {
-      // root already be black after every insert
-      // reach root end of recursion
-      return;
-    }
+    // a red violation moved up to the grandparent is solved by the next round of the loop
+    while (true) {
+      Node<V, T> parent = newNode.parent;
+      if (parent == null) {
+        // root already be black after every insert
+        // reached the root, end of the loop
+        return;
+      }
 
-    // do nothing when parent is black
-    if (parent.blackHeight == 1) {
-      return;
-    }
+      // do nothing when parent is black
+      if (parent.blackHeight == 1) {
+        return;
+      }
 
-    Node<V, T> grandChild = newNode;
-    Node<V, T> grandPa = parent.parent; // parent is red after the previous condition
+      Node<V, T> grandChild = newNode;
+      Node<V, T> grandPa = parent.parent; // parent is red after the previous condition
 
-    // parent is root, return then the end of insertHelper will update root to black
-    if (grandPa == null) {
-      return;
-    }
+      // parent is root, return then the end of insertHelper will update root to black
+      if (grandPa == null) {
+        return;
+      }
 
-    // the uncle node can be a black leaf node of the tree or black null node
-    // parent and grandpa already not null and just check the one possibility of uncle
-    // whether it's null or not, then check whether Grandpa has this parent as a child
-    // eliminated the possibility of a parental relation validity
-    // and return an uncle node
-    Node<V, T> uncle = getUncleHelper(parent);
-
-    // case 3: parent's sibling is red on conflict place
-    if (uncle != null && uncle.blackHeight == 0 && parent.blackHeight == 0) {
-      // step1: set parent and uncle to black
-      parent.blackHeight = 1;
-      uncle.blackHeight = 1;
-      // step2: let grandparent be red
-      grandPa.blackHeight = 0;
-      // step3: if upper level red violations, solve the property again
-      if (grandPa.parent != null && grandPa.parent.blackHeight == 0) {
-        enforceRBTreePropertiesAfterInsert(grandPa);
+      // the uncle node can be a black leaf node of the tree or black null node
+      // parent and grandpa already not null and just check the one possibility of uncle
+      // whether it's null or not, then check whether Grandpa has this parent as a child
+      // eliminated the possibility of a parental relation validity
+      // and return an uncle node
+      Node<V, T> uncle = getUncleHelper(parent);
+
+      // case 3: parent's sibling is red on conflict place
+      if (uncle != null && uncle.blackHeight == 0 && parent.blackHeight == 0) {
+        // step1: set parent and uncle to black
+        parent.blackHeight = 1;
+        uncle.blackHeight = 1;
+        // step2: let grandparent be red
+        grandPa.blackHeight = 0;
+        // step3: if upper level red violations, solve the property again
+        if (grandPa.parent != null && grandPa.parent.blackHeight == 0) {
+          newNode = grandPa;
+          continue;
+        }
+        return;
       }
-      return;
-    }
-    // uncle can be black, parent should be red
-    // case in which grandpa's left child is the parent
-    else if (parent == grandPa.leftChild) {
-      // case 1: child is same side as parent's sibling
-      if (parent.rightChild == grandChild && !grandChild.isLeftChild()) {
+      // uncle can be black, parent should be red
+      // case in which grandpa's left child is the parent
+      else if (parent == grandPa.leftChild) {
+        // case 1: child is same side as parent's sibling
+        if (parent.rightChild == grandChild && !grandChild.isLeftChild()) {
+          // step1: rotation
+          rotate(grandChild, parent); // rotate position will be handled by parameters
+          parent = newNode; // parent points to new root after rotation as a subtree
+        }
+        // parent is a leftChild but uncle is the rightChild of grandPa
+        // case 2: child is the opposite side as parent's sibling
         // step1: rotation
-        rotate(grandChild, parent); // rotate position will be handled by parameters
-        parent = newNode; // parent points to new root after rotation as a subtree
+        rotate(parent, grandPa); // rotate position will be handled by parameters
+        // step2: newGrandPa to black, oldGrandPa to red
+        parent.blackHeight = 1;// newGrandPa
+        grandPa.blackHeight = 0;// oldGrandPa
+        return;
       }
-      // parent is a leftChild but uncle is the rightChild of grandPa
-      // case 2: child is the opposite side as parent's sibling
-      // step1: rotation
-      rotate(parent, grandPa); // rotate position will be handled by parameters
-      // step2: newGrandPa to black, oldGrandPa to red
-      parent.blackHeight = 1;// newGrandPa
-      grandPa.blackHeight = 0;// oldGrandPa
-      return;
-    }
 
-    // case in which grandpa's right child is the parent
-    else {
-      // and newNode -> grandChild is a left child, meaning same side as parent's sibling
-      // case 1: child is the same side as parent's sibling
-      if (grandChild == parent.leftChild) {
+      // case in which grandpa's right child is the parent
+      else {
+        // and newNode -> grandChild is a left child, meaning same side as parent's sibling
+        // case 1: child is the same side as parent's sibling
+        if (grandChild == parent.leftChild) {
+          // step1: rotation
+          rotate(newNode, parent); // rotate position will be handled by parameters
+          parent = newNode; // parent points to new root after rotation as a subtree
+        }
+        // case 2: child is the opposite side as parent's sibling
         // step1: rotation
-        rotate(newNode, parent); // rotate position will be handled by parameters
-        parent = newNode; // parent points to new root after rotation as a subtree
+        rotate(parent, grandPa); // rotate position will be handled by parameters
+        // step2: newGrandPa to black, oldGrandPa to red
+        parent.blackHeight = 1;// newGrandPa
+        grandPa.blackHeight = 0;// oldGrandPa
+        return;
       }
-      // case 2: child is the opposite side as parent's sibling
-      // step1: rotation
-      rotate(parent, grandPa); // rotate position will be handled by parameters
-      // step2: newGrandPa to black, oldGrandPa to red
-      parent.blackHeight = 1;// newGrandPa
-      grandPa.blackHeight = 0;// oldGrandPa
-      return;
     }
   }
 
@@ -415,50 +467,120 @@ public class RedBlackTree<V extends Comparable<V>, T> implements SortedCollectio
     // null references will not be stored within this tree
     if (key == null)
       throw new NullPointerException("This RedBlackTree cannot store null references.");
-    return this.containsHelper(key, root);
+    return this.findNode(key) != null;
   }
 
   /**
-   * Recursive helper method that recurses through the tree and looks for the value *key*.
+   * Finds the node holding exactly this key.
    *
-   * @param key     the key to look for
-   * @param subtree the subtree to search through
-   * @return true of the value is in the subtree, false if not
+   * @param key the key to look for
+   * @return the node with that key, null if the key is not in the tree
    */
-  private boolean containsHelper(V key, Node<V, T> subtree) {
-    if (subtree == null) {
-      // we are at a null child, value is not in tree
-      return false;
-    } else {
-      int compare = key.compareTo(subtree.key);
+  protected Node<V, T> findNode(V key) {
+    Node<V, T> current = root;
+    while (current != null) {
+      int compare = key.compareTo(current.key);
+      if (compare == 0)
+        return current;
+      current = compare < 0 ? current.leftChild : current.rightChild;
+    }
+    return null;
+  }
+
+  /**
+   * Finds the node with the smallest key that is greater than or equal to the given key, which is
+   * where an in-order walk over all keys from that key on has to start.
+   *
+   * @param key the lower bound
+   * @return the ceiling node, null if every key in the tree is smaller
+   */
+  protected Node<V, T> ceilingNode(V key) {
+    Node<V, T> current = root;
+    Node<V, T> ceiling = null;
+    while (current != null) {
+      int compare = key.compareTo(current.key);
+      if (compare == 0)
+        return current;
       if (compare < 0) {
-        // go left in the tree
-        return containsHelper(key, subtree.leftChild);
-      } else if (compare > 0) {
-        // go right in the tree
-        return containsHelper(key, subtree.rightChild);
+        // current is a candidate, a smaller one can only be on the left
+        ceiling = current;
+        current = current.leftChild;
       } else {
-        // we found it :)
-        return true;
+        current = current.rightChild;
       }
     }
+    return ceiling;
+  }
+
+  /**
+   * Finds the in-order successor of a node by following child and parent references, so walking
+   * forward needs no stack.
+   *
+   * @param node the node to start from
+   * @return the node with the next larger key, null if node holds the largest key
+   */
+  protected static <V, T> Node<V, T> successor(Node<V, T> node) {
+    if (node.rightChild != null) {
+      // smallest key of the right subtree
+      Node<V, T> next = node.rightChild;
+      while (next.leftChild != null)
+        next = next.leftChild;
+      return next;
+    }
+    // first ancestor that has us in its left subtree
+    Node<V, T> child = node;
+    Node<V, T> parent = node.parent;
+    while (parent != null && child == parent.rightChild) {
+      child = parent;
+      parent = parent.parent;
+    }
+    return parent;
   }
 
   /**
-   * Returns an iterator over the values in in-order (sorted) order.
+   * Returns an iterator over the data lists of every key between low and high (both inclusive) in
+   * key order. The walk descends once to the ceiling of low, only into subtrees that can hold keys
+   * in range, and then steps to in-order successors until a key is above high, so nothing outside
+   * the range is visited and each list is produced only when next() asks for it.
+   *
+   * @param low  the smallest key to include
+   * @param high the largest key to include
+   * @return lazy iterator over the data lists of the keys in range
+   */
+  public Iterator<T> rangeIterator(V low, V high) {
+    if (low == null || high == null)
+      throw new NullPointerException("This RedBlackTree cannot store null references.");
+    return new Iterator<T>() {
+      Node<V, T> next = low.compareTo(high) > 0 ? null : ceilingNode(low);
+
+      public boolean hasNext() {
+        return next != null && next.key.compareTo(high) <= 0;
+      }
+
+      @SuppressWarnings("unchecked")
+      public T next() {
+        if (!hasNext())
+          throw new NoSuchElementException("There are no more elements in the range");
+        Node<V, T> current = next;
+        next = successor(current);
+        // the node keeps the data it was inserted with as a List
+        return (T) current.data;
+      }
+    };
+  }
+
+  /**
+   * Returns an iterator over the values in in-order (sorted) order. The iterator is a cursor on the
+   * next node and steps to its in-order successor through child and parent references, so it
+   * needs no stack and allocates nothing per step.
    *
    * @return iterator object that traverses the tree in in-order sequence
    */
   @Override
   public Iterator<V> iterator() {
-    // use an anonymous class here that implements the Iterator interface
-    // we create a new on-off object of this class everytime the iterator
-    // method is called
     return new Iterator<V>() {
-      // a stack and current reference store the progress of the traversal
-      // so that we can return one value at a time with the Iterator
-      Stack<Node<V, T>> stack = null;
-      Node<V, T> current = root;
+      // the node next() returns, null once the traversal is finished
+      Node<V, T> next = first();
 
       /**
        * The next method is called for each value in the traversal sequence. It returns one value at
@@ -468,30 +590,11 @@ public class RedBlackTree<V extends Comparable<V>, T> implements SortedCollectio
        * @throws NoSuchElementException if there is no more elements in the sequence
        */
       public V next() {
-        // if stack == null, we need to initialize the stack and current element
-        if (stack == null) {
-          stack = new Stack<Node<V, T>>();
-          current = root;
-        }
-        // go left as far as possible in the sub tree we are in un8til we hit a null
-        // leaf (current is null), pushing all the nodes we fund on our way onto the
-        // stack to process later
-        while (current != null) {
-          stack.push(current);
-          current = current.leftChild;
-        }
-        // as long as the stack is not empty, we haven't finished the traversal yet;
-        // take the next element from the stack and return it, then start to step down
-        // its right subtree (set its right sub tree to current)
-        if (!stack.isEmpty()) {
-          Node<V, T> processedNode = stack.pop();
-          current = processedNode.rightChild;
-          return processedNode.key;
-        } else {
-          // if the stack is empty, we are done with our traversal
+        if (next == null)
           throw new NoSuchElementException("There are no more elements in the tree");
-        }
-
+        Node<V, T> current = next;
+        next = successor(current);
+        return current.key;
       }
 
       /**
@@ -501,14 +604,26 @@ public class RedBlackTree<V extends Comparable<V>, T> implements SortedCollectio
        * @return boolean indicating whether there are more elements / steps for the traversal
        */
       public boolean hasNext() {
-        // return true if we either still have a current reference, or the stack
-        // is not empty yet
-        return !(current == null && (stack == null || stack.isEmpty()));
+        return next != null;
       }
 
     };
   }
 
+  /**
+   * Finds the node with the smallest key, where an in-order walk starts.
+   *
+   * @return the leftmost node, null if the tree is empty
+   */
+  protected Node<V, T> first() {
+    Node<V, T> node = root;
+    if (node == null)
+      return null;
+    while (node.leftChild != null)
+      node = node.leftChild;
+    return node;
+  }
+
   /**
    * This method performs an inorder traversal of the tree. The string representations of each data
    * value within this tree are assembled into a comma separated string within brackets (similar to
@@ -524,7 +639,7 @@ public class RedBlackTree<V extends Comparable<V>, T> implements SortedCollectio
     // to generate a string of all values of the tree in (ordered) in-order
     // traversal sequence
     Iterator<V> treeNodeIterator = this.iterator();
-    StringBuffer sb = new StringBuffer();
+    StringBuilder sb = new StringBuilder();
     sb.append("[ ");
     if (treeNodeIterator.hasNext())
       sb.append(treeNodeIterator.next());
@@ -548,20 +663,21 @@ public class RedBlackTree<V extends Comparable<V>, T> implements SortedCollectio
    * @return string containing the values of this tree in level order
    */
   public String toLevelOrderString() {
-    String output = "[ ";
-    LinkedList<Node<V, T>> q = new LinkedList<>();
-    q.add(this.root);
+    StringBuilder output = new StringBuilder("[ ");
+    ArrayDeque<Node<V, T>> q = new ArrayDeque<>();
+    if (this.root != null)
+      q.add(this.root);
     while (!q.isEmpty()) {
       Node<V, T> next = q.removeFirst();
       if (next.leftChild != null)
         q.add(next.leftChild);
       if (next.rightChild != null)
         q.add(next.rightChild);
-      output += next.data.toString();
+      output.append(next.data);
       if (!q.isEmpty())
-        output += ", ";
+        output.append(", ");
     }
-    return output + " ]";
+    return output.append(" ]").toString();
   }
 
   /**
@@ -1,6 +1,11 @@
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Set;
 
 
 /**
@@ -8,7 +13,9 @@ import java.util.NoSuchElementException;
  * (a) insert object with same key but different value in RBT, which is modified in the
  * RedBlackTree class
  * (b) search for a key, all values with same key is returned in a list
- * The returned list is sorted, and the search supports partial key word search.
+ * (c) search for every key starting with a prefix, or containing a substring, all matching
+ * lists are returned
+ * The returned lists are sorted and must not be modified.
  *
  * @param <V> the key
  * @param <T> the value
@@ -17,71 +24,184 @@ import java.util.NoSuchElementException;
 public class RedBlackTreeSortedSets<V extends Comparable<V>, T> extends RedBlackTree<V, T>
     implements IRedBlackTreeSortedSets<V, T> {
 
+  // length of the n-grams the substring index is built from
+  private static final int GRAM = 3;
+
+  // every n-gram of every key mapped to the nodes whose key contains it, null when disabled
+  private final Map<String, List<Node<V, T>>> grams;
+
+  /**
+   * Creates a tree without a substring index.
+   */
+  public RedBlackTreeSortedSets() {
+    this(false);
+  }
+
+  /**
+   * Creates a tree, optionally with an n-gram index over the string form of its keys that
+   * searchSubstring uses.
+   *
+   * @param substringIndex true to maintain the n-gram index on insert
+   */
+  public RedBlackTreeSortedSets(boolean substringIndex) {
+    this.grams = substringIndex ? new HashMap<>() : null;
+  }
+
+  /**
+   * Inserts the key and data, and registers the n-grams of a key that is new to the tree.
+   *
+   * @param key  the key of the node
+   * @param data the data of the node
+   * @return true if the insert operation is successful
+   */
+  @Override
+  public boolean insert(V key, T data) throws NullPointerException, IllegalArgumentException {
+    boolean isNew = grams != null && key != null && findNode(key) == null;
+    boolean inserted = super.insert(key, data);
+    if (isNew)
+      indexGrams(findNode(key));
+    return inserted;
+  }
+
+  /**
+   * Builds the tree from sorted keys in O(n), and registers the n-grams of every key.
+   *
+   * @param keys strictly ascending keys, no nulls
+   * @param data the data of each key, at the same index
+   */
+  @Override
+  public void bulkLoad(List<V> keys, List<T> data) {
+    super.bulkLoad(keys, data);
+    if (grams != null) {
+      for (Node<V, T> node = first(); node != null; node = successor(node))
+        indexGrams(node);
+    }
+  }
+
+  /**
+   * Registers the node under every distinct n-gram of its key.
+   *
+   * @param node a node whose key is new to the tree
+   */
+  private void indexGrams(Node<V, T> node) {
+    String s = node.key.toString();
+    Set<String> seen = new LinkedHashSet<>();
+    for (int i = 0; i + GRAM <= s.length(); i++) {
+      if (seen.add(s.substring(i, i + GRAM)))
+        grams.computeIfAbsent(s.substring(i, i + GRAM), g -> new ArrayList<>()).add(node);
+    }
+  }
 
   /**
    * This method is to search for a key, and all values with same key will be returned in a list.
-   * This method can be used to partial key word search.
    * The returned result list is sorted.
-   * This method is a extension function of the contains method, and modified based on the recursive
-   * implementation.
+   * This method is a extension function of the contains method.
    *
-   * @param key the partial key to search
-   * @return true if successfully search, false otherwise
+   * @param key the key to search
+   * @return the sorted list of values stored under the key
    * @throws NoSuchElementException if no such key in the RBT
    */
   @Override
   public List search(V key) throws NoSuchElementException {
     if (key == null)
       throw new NullPointerException("This RedBlackTree cannot store null references.");
+    Node<V, T> node = findNode(key);
+    if (node == null)
+      throw new NoSuchElementException("No such element in this RedBlackTree.");
     // the data field is the List type, and sort the list in the returned result
-    return sort(this.searchHelper(key, root).data);
+    return sort(node.data);
   }
 
   /**
-   * The recursive helper method of the search method
+   * This method returns the lists of every key whose string form starts with the prefix. It finds
+   * the ceiling of the prefix in O(log n) and then walks forward in key order until the keys stop
+   * matching, so the cost is bounded by the number of matching keys. Meant for String keys, where
+   * the key order and the string order agree.
    *
-   * @param key     the partial key to search (target)
-   * @param current the current subtree of the RBT
-   * @return the node of the RBT
+   * @param prefix the prefix to search
+   * @return the sorted lists of all matching keys in key order, empty if no key matches
    */
-  private Node<V, T> searchHelper(V key, Node<V, T> current) {
-    // Base case 1: an empty RBT or unsuccessful search
-    if (current == null) {
-      throw new NoSuchElementException("No such element in this RedBlackTree.");
-    } else {
-
-      // partial key word search function
-      if (current.key.toString().contains(key.toString())) {
-        key = current.key;
-      }
-
-      // comparator
-      int cmp = key.toString().compareTo(current.key.toString());
-
-      // Base case 2: successful search, find the target node
-      if (cmp == 0) {
-        return current;
-      }
+  @Override
+  public List<T> searchPrefix(V prefix) {
+    if (prefix == null)
+      throw new NullPointerException("This RedBlackTree cannot store null references.");
+    String p = prefix.toString();
+    List<T> result = new ArrayList<>();
+    for (Node<V, T> node = ceilingNode(prefix); node != null
+        && node.key.toString().startsWith(p); node = successor(node)) {
+      result.add(sorted(node));
+    }
+    return result;
+  }
 
-      // Recursive cases:
-      if (cmp < 0) {
-        // go left
-        return searchHelper(key, current.leftChild);
-      } else {
-        // go right
-        return searchHelper(key, current.rightChild);
+  /**
+   * This method returns the lists of every key whose string form contains the substring. With the
+   * n-gram index enabled only the keys sharing the rarest n-gram of the substring are checked;
+   * substrings shorter than an n-gram, or a tree without the index, check every key.
+   *
+   * @param substring the substring to search
+   * @return the sorted lists of all matching keys in key order, empty if no key matches
+   */
+  @Override
+  public List<T> searchSubstring(V substring) {
+    if (substring == null)
+      throw new NullPointerException("This RedBlackTree cannot store null references.");
+    String s = substring.toString();
+    List<T> result = new ArrayList<>();
+    if (grams == null || s.length() < GRAM) {
+      // walk every key in order
+      for (Node<V, T> node = first(); node != null; node = successor(node)) {
+        if (node.key.toString().contains(s))
+          result.add(sorted(node));
       }
+      return result;
     }
+    // every matching key contains all n-grams of the substring, the rarest one is the cheapest
+    List<Node<V, T>> candidates = null;
+    for (int i = 0; i + GRAM <= s.length(); i++) {
+      List<Node<V, T>> nodes = grams.get(s.substring(i, i + GRAM));
+      if (nodes == null)
+        return result;
+      if (candidates == null || nodes.size() < candidates.size())
+        candidates = nodes;
+    }
+    List<Node<V, T>> matches = new ArrayList<>();
+    for (Node<V, T> node : candidates) {
+      if (node.key.toString().contains(s))
+        matches.add(node);
+    }
+    matches.sort((a, b) -> a.key.compareTo(b.key));
+    for (Node<V, T> node : matches)
+      result.add(sorted(node));
+    return result;
   }
 
   /**
-   * This method is to sort the list in an alphabetical order
-   * 
+   * The sorted list of a node as the data type of the tree, the list the node was inserted with
+   * or a sorted copy of it.
+   *
+   * @param node the node
+   * @return the sorted data of the node
+   */
+  @SuppressWarnings("unchecked")
+  private T sorted(Node<V, T> node) {
+    return (T) sort(node.data);
+  }
+
+  /**
+   * This method returns the list in an alphabetical order. An ordered IBucket keeps its own search
+   * order and is returned as its read-only view, any other list is copied and the copy is sorted,
+   * the list stored in the tree is never modified so concurrent searches cannot interfere with
+   * each other
+   *
    * @param list the list to be sort
-   * @return the sorted list
+   * @return the sorted list, not to be modified
    */
   @SuppressWarnings("unchecked")
   private List sort(List list) {
+    if (list instanceof IBucket && ((IBucket) list).isOrdered())
+      return ((IBucket) list).readOnly();
+    list = new ArrayList(list);
     // rewrite the comparator to define the way to compare
     list.sort(new Comparator() {
       @Override
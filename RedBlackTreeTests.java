@@ -0,0 +1,207 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the red-black invariants of trees built by bulkLoad, and of the same trees after more
+ * keys are inserted: the root is black, no red node has a red child, every path from a node down
+ * to a leaf has the same number of black nodes, keys are in order and parent links match. Also
+ * checks that rangeIterator walks exactly the keys between its bounds.
+ */
+public class RedBlackTreeTests {
+
+  /**
+   * @return black height of the subtree, checking every invariant on the way down
+   */
+  private static int check(RedBlackTree.Node<Integer, List<Integer>> node,
+      RedBlackTree.Node<Integer, List<Integer>> parent, Integer low, Integer high) {
+    if (node == null)
+      return 1;
+    assertTrue(node.parent == parent, "parent link of " + node.key);
+    assertTrue(node.blackHeight == 0 || node.blackHeight == 1, "color of " + node.key);
+    assertTrue(low == null || node.key > low, "order at " + node.key);
+    assertTrue(high == null || node.key < high, "order at " + node.key);
+    if (node.blackHeight == 0) {
+      assertTrue(node.leftChild == null || node.leftChild.blackHeight == 1, "red " + node.key
+          + " has a red left child");
+      assertTrue(node.rightChild == null || node.rightChild.blackHeight == 1, "red " + node.key
+          + " has a red right child");
+    }
+    int left = check(node.leftChild, node, low, node.key);
+    int right = check(node.rightChild, node, node.key, high);
+    assertEquals(left, right, "black heights differ below " + node.key);
+    return left + node.blackHeight;
+  }
+
+  private static void checkTree(RedBlackTree<Integer, List<Integer>> tree, TreeSet<Integer> keys) {
+    if (tree.root != null)
+      assertEquals(1, tree.root.blackHeight, "root must be black");
+    check(tree.root, null, null, null);
+    assertEquals(keys.size(), tree.size());
+    Iterator<Integer> expected = keys.iterator();
+    for (Integer key : tree)
+      assertEquals(expected.next(), key);
+    assertTrue(!expected.hasNext());
+  }
+
+  private static List<Integer> data(int key) {
+    List<Integer> data = new ArrayList<>();
+    data.add(key);
+    return data;
+  }
+
+  /**
+   * a tree bulk loaded with the even numbers below 2 * n
+   */
+  private static RedBlackTree<Integer, List<Integer>> evens(int n, TreeSet<Integer> keys) {
+    List<Integer> sorted = new ArrayList<>();
+    List<List<Integer>> data = new ArrayList<>();
+    for (int i = 0; i < n; i++) {
+      sorted.add(2 * i);
+      data.add(data(2 * i));
+      keys.add(2 * i);
+    }
+    RedBlackTree<Integer, List<Integer>> tree = new RedBlackTree<>();
+    tree.bulkLoad(sorted, data);
+    return tree;
+  }
+
+  @Test
+  public void bulkLoadKeepsTheInvariantsForEverySize() {
+    for (int n = 0; n <= 300; n++) {
+      TreeSet<Integer> keys = new TreeSet<>();
+      checkTree(evens(n, keys), keys);
+    }
+  }
+
+  @Test
+  public void insertsAfterBulkLoadKeepTheInvariants() {
+    Random random = new Random(20);
+    for (int n : new int[] {1, 2, 3, 7, 8, 100, 127, 128, 1000}) {
+      TreeSet<Integer> keys = new TreeSet<>();
+      RedBlackTree<Integer, List<Integer>> tree = evens(n, keys);
+      // odd keys fall between the loaded ones, larger keys grow the tree on the right
+      for (int i = 0; i < 2 * n + 50; i++) {
+        int key = random.nextBoolean() ? 2 * random.nextInt(n + 20) + 1 : 2 * n + i;
+        if (keys.add(key)) {
+          tree.insert(key, data(key));
+          checkTree(tree, keys);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void ascendingInsertsAfterBulkLoadKeepTheInvariants() {
+    TreeSet<Integer> keys = new TreeSet<>();
+    RedBlackTree<Integer, List<Integer>> tree = evens(50, keys);
+    for (int key = 100; key < 600; key++) {
+      keys.add(key);
+      tree.insert(key, data(key));
+    }
+    checkTree(tree, keys);
+  }
+
+  @Test
+  public void insertingALoadedKeyAppendsToItsList() {
+    TreeSet<Integer> keys = new TreeSet<>();
+    RedBlackTree<Integer, List<Integer>> tree = evens(20, keys);
+    tree.insert(10, data(-10));
+    keys.add(-1);
+    tree.insert(-1, data(-1));
+    check(tree.root, null, null, null);
+    assertEquals(List.of(10, -10), tree.findNode(10).data);
+  }
+
+  @Test
+  public void bulkLoadRejectsBadInput() {
+    RedBlackTree<Integer, List<Integer>> tree = new RedBlackTree<>();
+    assertThrows(IllegalArgumentException.class,
+        () -> tree.bulkLoad(List.of(1, 3, 2), List.of(data(1), data(3), data(2))));
+    assertThrows(IllegalArgumentException.class,
+        () -> tree.bulkLoad(List.of(1, 1), List.of(data(1), data(1))));
+    assertThrows(IllegalArgumentException.class, () -> tree.bulkLoad(List.of(1), List.of()));
+    tree.insert(5, data(5));
+    assertThrows(IllegalStateException.class, () -> tree.bulkLoad(List.of(6), List.of(data(6))));
+  }
+
+  /**
+   * @return the keys whose data lists the range walk returns, every list starts with its key
+   */
+  private static List<Integer> range(RedBlackTree<Integer, List<Integer>> tree, int low, int high) {
+    List<Integer> keys = new ArrayList<>();
+    Iterator<List<Integer>> lists = tree.rangeIterator(low, high);
+    while (lists.hasNext())
+      keys.add(lists.next().get(0));
+    assertThrows(NoSuchElementException.class, lists::next);
+    return keys;
+  }
+
+  @Test
+  public void rangeOfAnEmptyTreeIsEmpty() {
+    RedBlackTree<Integer, List<Integer>> tree = new RedBlackTree<>();
+    assertEquals(List.of(), range(tree, Integer.MIN_VALUE, Integer.MAX_VALUE));
+  }
+
+  @Test
+  public void invertedRangeIsEmpty() {
+    RedBlackTree<Integer, List<Integer>> tree = evens(50, new TreeSet<>());
+    assertEquals(List.of(), range(tree, 10, 4));
+    assertEquals(List.of(), range(tree, 11, 10));
+  }
+
+  @Test
+  public void singleKeyRange() {
+    RedBlackTree<Integer, List<Integer>> tree = evens(50, new TreeSet<>());
+    assertEquals(List.of(10), range(tree, 10, 10));
+    assertEquals(List.of(0), range(tree, 0, 0));
+    assertEquals(List.of(98), range(tree, 98, 98));
+    assertEquals(List.of(), range(tree, 11, 11));
+  }
+
+  @Test
+  public void boundsBetweenKeys() {
+    RedBlackTree<Integer, List<Integer>> tree = evens(50, new TreeSet<>());
+    assertEquals(List.of(6, 8, 10), range(tree, 5, 11));
+    assertEquals(List.of(0), range(tree, -5, 1));
+    assertEquals(List.of(98), range(tree, 97, 200));
+    assertEquals(List.of(), range(tree, 99, 200));
+    assertEquals(List.of(), range(tree, -10, -1));
+    assertEquals(List.of(), range(tree, 3, 3));
+  }
+
+  @Test
+  public void rangeMatchesASortedSet() {
+    Random random = new Random(6);
+    TreeSet<Integer> keys = new TreeSet<>();
+    RedBlackTree<Integer, List<Integer>> tree = evens(200, keys);
+    for (int i = 0; i < 200; i++) {
+      int key = random.nextInt(600);
+      if (keys.add(key))
+        tree.insert(key, data(key));
+    }
+    for (int i = 0; i < 500; i++) {
+      int low = random.nextInt(650) - 20;
+      int high = low + random.nextInt(100) - 10;
+      List<Integer> expected = low > high ? List.of()
+          : new ArrayList<>(keys.subSet(low, true, high, true));
+      assertEquals(expected, range(tree, low, high), low + ".." + high);
+    }
+  }
+
+  @Test
+  public void rangeRejectsNullBounds() {
+    RedBlackTree<Integer, List<Integer>> tree = evens(5, new TreeSet<>());
+    assertThrows(NullPointerException.class, () -> tree.rangeIterator(null, 3));
+    assertThrows(NullPointerException.class, () -> tree.rangeIterator(3, null));
+  }
+}
@@ -0,0 +1,234 @@
+import java.io.DataInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * SnapshotBookLoader reads the binary catalog snapshot written by BookSnapshotWriter back with a
+ * memory-mapped file. A snapshot is only used while it matches the xml file it was built from:
+ * the header records the length and modification time of the source, the format version and a
+ * CRC32 of the payload.
+ *
+ * Layout (big endian): magic, version, source length, source modified, book count,
+ * payload length, payload crc, then one record per book in load order and, when the writer had
+ * one, the index section of BookSearcherBackend.writeIndexes, both covered by the crc.
+ */
+public class SnapshotBookLoader implements IBookLoader {
+
+    static final int MAGIC = 0x424B534E; // "BKSN"
+    static final int VERSION = 5;
+    static final int HEADER_BYTES = 4 + 4 + 8 + 8 + 4 + 8 + 8;
+    // where the book count sits in the header
+    private static final int COUNT_OFFSET = 4 + 4 + 8 + 8;
+
+    private final String sourcePath;
+
+    /**
+     * @param sourcePath the xml file snapshots have to match to be used
+     */
+    public SnapshotBookLoader(String sourcePath) {
+        this.sourcePath = sourcePath;
+    }
+
+    /**
+     * check the header of the snapshot against the current source file, the payload checksum is
+     * verified when the snapshot is loaded
+     * @param snapshotPath the snapshot file
+     * @return true if the snapshot exists, has the current version and matches the source file
+     */
+    public boolean isFresh(String snapshotPath) {
+        Path snapshot = Paths.get(snapshotPath);
+        Path source = Paths.get(sourcePath);
+        if (!Files.isRegularFile(snapshot) || !Files.isRegularFile(source)) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                return false;
+            }
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // read the whole header
+            }
+            header.flip();
+            return header.getInt() == MAGIC && header.getInt() == VERSION
+                    && header.getLong() == Files.size(source)
+                    && header.getLong() == Files.getLastModifiedTime(source).toMillis();
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * load all the books stored in the snapshot
+     * @param filepath the snapshot file
+     * @return a list of book objects in the order they were loaded from xml
+     * @throws IllegalStateException if the snapshot is stale or corrupt
+     */
+    @Override
+    public List<IBook> loadBooks(String filepath) throws FileNotFoundException {
+        List<IBook> bookList = new ArrayList<>();
+        loadBooks(filepath, bookList::add);
+        return bookList;
+    }
+
+    /**
+     * load all the books stored in the snapshot straight into the backend
+     * @param filepath the snapshot file
+     * @param backend backend every book is added to
+     * @return number of books loaded
+     * @throws IllegalStateException if the snapshot is stale or corrupt
+     */
+    public int loadBooks(String filepath, IBookSearcherBackend backend) throws FileNotFoundException {
+        return loadBooks(filepath, backend::addBook);
+    }
+
+    /**
+     * decode every book of the snapshot and hand it to the sink, nothing is handed out before the
+     * checksum of the whole payload has been verified
+     * @param filepath the snapshot file
+     * @param sink receives every book in load order
+     * @return number of books loaded
+     * @throws IllegalStateException if the snapshot is stale or corrupt
+     */
+    public int loadBooks(String filepath, Consumer<? super IBook> sink) throws FileNotFoundException {
+        ByteBuffer file = verified(filepath);
+        int count = file.getInt(COUNT_OFFSET);
+        readBooks(payload(file), count, sink);
+        return count;
+    }
+
+    /**
+     * load the books of the snapshot into the store and build the backend over them from the
+     * index section, or by indexing the books when the snapshot has none
+     * @param filepath the snapshot file
+     * @param store empty store the books are put in
+     * @return the backend over the filled store
+     * @throws IllegalStateException if the snapshot is stale or corrupt
+     */
+    public BookSearcherBackend loadBackend(String filepath, IBookStore store)
+            throws FileNotFoundException {
+        ByteBuffer file = verified(filepath);
+        ByteBuffer payload = payload(file);
+        readBooks(payload, file.getInt(COUNT_OFFSET), book -> {
+            // the backend never indexes a book without a title
+            if (book.getTitle() != null) {
+                store.add(book);
+            }
+        });
+        if (!payload.hasRemaining()) {
+            return new BookSearcherBackend(store);
+        }
+        try {
+            return new BookSearcherBackend(store, new DataInputStream(stream(payload)));
+        } catch (IOException | RuntimeException e) {
+            throw new IllegalStateException("snapshot " + filepath + " has a broken index section", e);
+        }
+    }
+
+    /**
+     * map the snapshot and check it against the source and its checksum
+     * @return the whole file, read only
+     */
+    private ByteBuffer verified(String filepath) throws FileNotFoundException {
+        if (!isFresh(filepath)) {
+            throw new IllegalStateException("snapshot " + filepath + " does not match " + sourcePath);
+        }
+        try (FileChannel channel = FileChannel.open(Paths.get(filepath), StandardOpenOption.READ)) {
+            MappedByteBuffer file = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            long payloadLength = file.getLong(COUNT_OFFSET + 4);
+            long crc = file.getLong(COUNT_OFFSET + 4 + 8);
+            if (payloadLength != channel.size() - HEADER_BYTES) {
+                throw new IllegalStateException("snapshot " + filepath + " is truncated");
+            }
+            CRC32 checksum = new CRC32();
+            checksum.update(payload(file));
+            if (checksum.getValue() != crc) {
+                throw new IllegalStateException("snapshot " + filepath + " failed its checksum");
+            }
+            return file;
+        } catch (NoSuchFileException e) {
+            throw new FileNotFoundException(filepath);
+        } catch (IOException e) {
+            throw new IllegalStateException("could not read snapshot " + filepath, e);
+        }
+    }
+
+    /**
+     * @return everything after the header, with its own position
+     */
+    private static ByteBuffer payload(ByteBuffer file) {
+        return file.duplicate().position(HEADER_BYTES).slice();
+    }
+
+    /**
+     * decode count books from the payload, it is left positioned after the last one
+     */
+    private static void readBooks(ByteBuffer payload, int count, Consumer<? super IBook> sink) {
+        byte[] scratch = new byte[256];
+        for (int i = 0; i < count; i++) {
+            String title = readString(payload, scratch);
+            String authors = readString(payload, scratch);
+            double rating = payload.getDouble();
+            int pages = payload.getInt();
+            String language = readString(payload, scratch);
+            int ratingCounts = payload.getInt();
+            String publisher = readString(payload, scratch);
+            int bookId = payload.getInt();
+            String isbn = readString(payload, scratch);
+            long isbn13 = payload.getLong();
+            int publicationDate = payload.getInt();
+            sink.accept(new Book(title, authors, rating, pages, language, ratingCounts,
+                    publisher, bookId, isbn, isbn13 < 0 ? null : Long.toString(isbn13),
+                    publicationDate));
+        }
+    }
+
+    /**
+     * read the rest of the buffer as a stream, for the index section
+     */
+    private static InputStream stream(ByteBuffer buffer) {
+        return new InputStream() {
+            @Override
+            public int read() {
+                return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+            }
+
+            @Override
+            public int read(byte[] bytes, int offset, int length) {
+                if (!buffer.hasRemaining()) {
+                    return -1;
+                }
+                int n = Math.min(length, buffer.remaining());
+                buffer.get(bytes, offset, n);
+                return n;
+            }
+        };
+    }
+
+    /**
+     * read a length prefixed utf-8 string, -1 stands for null
+     */
+    private static String readString(ByteBuffer payload, byte[] scratch) {
+        int length = payload.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = length <= scratch.length ? scratch : new byte[length];
+        payload.get(bytes, 0, length);
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,182 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * A snapshot is only used while it matches its xml: a source with another length or modification
+ * time, another format version or a payload that fails its checksum must be rejected by isFresh
+ * or loadBooks, and the app must then load the xml again and write a good snapshot. A snapshot
+ * that is never committed must leave neither a temporary file nor a changed snapshot behind.
+ */
+public class SnapshotBookLoaderTests {
+    // books of the small catalog copied from books.xml
+    private static final int BOOKS = 200;
+    private static final Charset XML_CHARSET = Charset.forName("windows-1252");
+
+    @TempDir
+    Path dir;
+    private String xml;
+    private String snapshot;
+
+    /**
+     * copy the first BOOKS records of books.xml and load them once, which writes the snapshot
+     */
+    @BeforeEach
+    public void writeCatalogAndSnapshot() throws IOException {
+        String text = new String(Files.readAllBytes(Path.of("books.xml")), XML_CHARSET);
+        int end = 0;
+        // the header record and BOOKS books
+        for (int i = 0; i <= BOOKS; i++) {
+            end = text.indexOf("</Record>", end) + "</Record>".length();
+        }
+        Path catalog = dir.resolve("books.xml");
+        Files.write(catalog, (text.substring(0, end) + "\n</Records>\n").getBytes(XML_CHARSET));
+        xml = catalog.toString();
+        snapshot = dir.resolve("books.snapshot").toString();
+        assertEquals(BOOKS, load().getNumberOfBooks());
+        assertTrue(Files.isRegularFile(Path.of(snapshot)));
+    }
+
+    private IBookSearcherBackend load() throws IOException {
+        return BookSearcherApp.load(backend -> backend, BookColumns::new, false, xml, snapshot);
+    }
+
+    private SnapshotBookLoader loader() {
+        return new SnapshotBookLoader(xml);
+    }
+
+    /**
+     * load the catalog through the app and check it came from the xml: the snapshot was written
+     * again, so it is fresh and loads, and it holds every book
+     */
+    private void assertReloadedFromXml(byte[] rejected) throws IOException {
+        IBookSearcherBackend backend = load();
+        assertEquals(BOOKS, backend.getNumberOfBooks());
+        assertTrue(loader().isFresh(snapshot));
+        assertEquals(BOOKS, loader().loadBooks(snapshot).size());
+        assertFalse(Arrays.equals(rejected, Files.readAllBytes(Path.of(snapshot))));
+    }
+
+    @Test
+    public void freshSnapshotIsUsedAsIs() throws IOException {
+        assertTrue(loader().isFresh(snapshot));
+        List<IBook> fromXml = new StreamingBookLoader().loadBooks(xml);
+        List<IBook> fromSnapshot = loader().loadBooks(snapshot);
+        assertEquals(fromXml.size(), fromSnapshot.size());
+        for (int i = 0; i < fromXml.size(); i++) {
+            IBook expected = fromXml.get(i);
+            IBook actual = fromSnapshot.get(i);
+            assertEquals(expected.toString(), actual.toString());
+            assertEquals(expected.getIsbn13(), actual.getIsbn13());
+            assertEquals(expected.getPublicationDate(), actual.getPublicationDate());
+        }
+        // a warm start reads the snapshot and leaves it untouched
+        byte[] before = Files.readAllBytes(Path.of(snapshot));
+        FileTime modified = Files.getLastModifiedTime(Path.of(snapshot));
+        assertEquals(BOOKS, load().getNumberOfBooks());
+        assertArrayEquals(before, Files.readAllBytes(Path.of(snapshot)));
+        assertEquals(modified, Files.getLastModifiedTime(Path.of(snapshot)));
+    }
+
+    @Test
+    public void corruptPayloadFailsTheChecksum() throws IOException {
+        byte[] bytes = Files.readAllBytes(Path.of(snapshot));
+        bytes[SnapshotBookLoader.HEADER_BYTES + bytes.length / 2] ^= 0x01;
+        Files.write(Path.of(snapshot), bytes);
+        // the header still matches, only loading checks the payload
+        assertTrue(loader().isFresh(snapshot));
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> loader().loadBooks(snapshot));
+        assertTrue(e.getMessage().contains("checksum"), e.getMessage());
+        assertThrows(IllegalStateException.class,
+                () -> loader().loadBackend(snapshot, new BookColumns()));
+        assertReloadedFromXml(bytes);
+    }
+
+    @Test
+    public void truncatedSnapshotIsRejected() throws IOException {
+        byte[] bytes = Files.readAllBytes(Path.of(snapshot));
+        byte[] cut = Arrays.copyOf(bytes, bytes.length - 1);
+        Files.write(Path.of(snapshot), cut);
+        assertThrows(IllegalStateException.class, () -> loader().loadBooks(snapshot));
+        assertReloadedFromXml(cut);
+    }
+
+    @Test
+    public void otherVersionIsStale() throws IOException {
+        byte[] bytes = Files.readAllBytes(Path.of(snapshot));
+        // the version follows the magic
+        ByteBuffer.wrap(bytes).putInt(4, SnapshotBookLoader.VERSION + 1);
+        Files.write(Path.of(snapshot), bytes);
+        assertFalse(loader().isFresh(snapshot));
+        assertThrows(IllegalStateException.class, () -> loader().loadBooks(snapshot));
+        assertReloadedFromXml(bytes);
+    }
+
+    @Test
+    public void modifiedSourceMakesTheSnapshotStale() throws IOException {
+        byte[] bytes = Files.readAllBytes(Path.of(snapshot));
+        Path source = Path.of(xml);
+        Files.setLastModifiedTime(source,
+                FileTime.fromMillis(Files.getLastModifiedTime(source).toMillis() + 60_000));
+        assertFalse(loader().isFresh(snapshot));
+        assertThrows(IllegalStateException.class, () -> loader().loadBooks(snapshot));
+        assertReloadedFromXml(bytes);
+    }
+
+    @Test
+    public void resizedSourceMakesTheSnapshotStale() throws IOException {
+        byte[] bytes = Files.readAllBytes(Path.of(snapshot));
+        Path source = Path.of(xml);
+        FileTime modified = Files.getLastModifiedTime(source);
+        Files.write(source, " ".getBytes(XML_CHARSET), StandardOpenOption.APPEND);
+        // same modification time, only the length tells
+        Files.setLastModifiedTime(source, modified);
+        assertFalse(loader().isFresh(snapshot));
+        assertThrows(IllegalStateException.class, () -> loader().loadBooks(snapshot));
+        assertReloadedFromXml(bytes);
+    }
+
+    @Test
+    public void uncommittedSnapshotIsDeleted() throws IOException {
+        byte[] before = Files.readAllBytes(Path.of(snapshot));
+        Path temp = Path.of(snapshot + ".tmp");
+        try (BookSnapshotWriter writer = new BookSnapshotWriter(snapshot, xml)) {
+            for (IBook book : new StreamingBookLoader().loadBooks(xml)) {
+                writer.accept(book);
+            }
+            assertTrue(Files.exists(temp));
+        }
+        assertFalse(Files.exists(temp));
+        assertArrayEquals(before, Files.readAllBytes(Path.of(snapshot)));
+        assertTrue(loader().isFresh(snapshot));
+    }
+
+    @Test
+    public void failedXmlLoadKeepsTheOldSnapshot() throws IOException {
+        byte[] before = Files.readAllBytes(Path.of(snapshot));
+        Path source = Path.of(xml);
+        byte[] text = Files.readAllBytes(source);
+        // cut the catalog off in the middle, which also makes the snapshot stale
+        Files.write(source, Arrays.copyOf(text, text.length / 2));
+        assertThrows(IllegalStateException.class, this::load);
+        assertFalse(Files.exists(Path.of(snapshot + ".tmp")));
+        assertArrayEquals(before, Files.readAllBytes(Path.of(snapshot)));
+    }
+}
@@ -0,0 +1,142 @@
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * StreamingBookLoader reads books.xml with a StAX XMLStreamReader instead of building a DOM.
+ * Every <Row> element is turned into a Book as soon as it is read, so only the columns we use
+ * are ever kept in memory. Books can either be collected into a list (IBookLoader) or pushed
+ * straight into a backend / consumer while the file is being read.
+ */
+public class StreamingBookLoader implements IBookLoader {
+
+    // the first <Row> of the sheet holds the column names, not a book
+    private static final String HEADER_ID = "bookID";
+
+    /**
+     * load all the books of the file into a list, same contract as BookLoader
+     * @param filepath is relative to executable's working directory
+     * @return a list of book objects that were read from specified file
+     * @throws IllegalStateException if the file cannot be read or is not a valid catalog
+     */
+    @Override
+    public List<IBook> loadBooks(String filepath) throws FileNotFoundException {
+        List<IBook> bookList = new ArrayList<>();
+        loadBooks(filepath, bookList::add);
+        return bookList;
+    }
+
+    /**
+     * load all the books of the file straight into the backend, no intermediate list is built
+     * @param filepath is relative to executable's working directory
+     * @param backend backend every book is added to while reading
+     * @return number of books read from the file
+     * @throws IllegalStateException if the file cannot be read or is not a valid catalog
+     */
+    public int loadBooks(String filepath, IBookSearcherBackend backend) throws FileNotFoundException {
+        return loadBooks(filepath, backend::addBook);
+    }
+
+    /**
+     * load all the books of the file and hand each one to the sink as soon as its row is read
+     * @param filepath is relative to executable's working directory
+     * @param sink receives every book in file order
+     * @return number of books read from the file
+     * @throws IllegalStateException if the file cannot be read or is not a valid catalog, the
+     *         sink may already have received the books before the error
+     */
+    public int loadBooks(String filepath, Consumer<? super IBook> sink) throws FileNotFoundException {
+        try (InputStream in = new BufferedInputStream(new FileInputStream(filepath))) {
+            return readRows(in, null, true, sink);
+        } catch (FileNotFoundException e) {
+            throw e;
+        } catch (XMLStreamException e) {
+            throw new IllegalStateException("could not parse " + filepath, e);
+        } catch (IOException e) {
+            throw new IllegalStateException("could not read " + filepath, e);
+        }
+    }
+
+    /**
+     * stream every <Row> of the input into the sink
+     * @param in xml input
+     * @param encoding character encoding of the input, null to use the xml declaration
+     * @param skipHeader true if the first row holds the column names
+     * @param sink receives every book in document order
+     * @return number of books handed to the sink
+     * @throws XMLStreamException if the input is not well formed or a row has a malformed number
+     */
+    static int readRows(InputStream in, String encoding, boolean skipHeader,
+            Consumer<? super IBook> sink) throws XMLStreamException {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, false);
+        XMLStreamReader reader = encoding == null ? factory.createXMLStreamReader(in)
+                : factory.createXMLStreamReader(in, encoding);
+        int count = 0;
+        boolean header = skipHeader;
+        try {
+            while (reader.hasNext()) {
+                if (reader.next() != XMLStreamConstants.START_ELEMENT
+                        || !"Row".equals(reader.getLocalName())) {
+                    continue;
+                }
+                if (header) {
+                    header = false;
+                    if (HEADER_ID.equals(reader.getAttributeValue(null, "A"))) {
+                        continue;
+                    }
+                }
+                Book book;
+                try {
+                    book = toBook(reader);
+                } catch (NumberFormatException e) {
+                    // reported like any other parse error, with the position of the row
+                    throw new XMLStreamException("malformed row: " + e.getMessage(),
+                            reader.getLocation(), e);
+                }
+                sink.accept(book);
+                count++;
+            }
+        } finally {
+            reader.close();
+        }
+        return count;
+    }
+
+    /**
+     * build a book from the attributes of the <Row> the reader is positioned on
+     * @param reader reader positioned on a <Row> start element
+     * @return the book described by the row
+     */
+    static Book toBook(XMLStreamReader reader) {
+        String bookId = reader.getAttributeValue(null, "A");
+        String title = reader.getAttributeValue(null, "B");
+        String authors = reader.getAttributeValue(null, "C");
+        String avgRating = reader.getAttributeValue(null, "D");
+        String isbn = reader.getAttributeValue(null, "E");
+        String isbn13 = reader.getAttributeValue(null, "F");
+        String lanCode = reader.getAttributeValue(null, "G");
+        String numPages = reader.getAttributeValue(null, "H");
+        String totalRating = reader.getAttributeValue(null, "I");
+        String publicationDate = reader.getAttributeValue(null, "K");
+        String publisher = reader.getAttributeValue(null, "L");
+
+        double rating = Double.parseDouble(avgRating);
+        int pages = Integer.parseInt(numPages);
+        int ratingCounts = Integer.parseInt(totalRating);
+
+        return new Book(title, authors, rating, pages, lanCode, ratingCounts, publisher,
+                Integer.parseInt(bookId), isbn, isbn13, EpochDay.parse(publicationDate));
+    }
+}
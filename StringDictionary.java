@@ -0,0 +1,92 @@
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * StringDictionary stores each distinct value of a column (a language code, an author list, a
+ * publisher) once
+ * and hands out dense int ids for them, so a book only keeps the id and equal values compare as
+ * ints. Encoding is synchronized since the parallel loader builds books on several threads.
+ * Readers never lock: decode reads the published value array, and find looks the value up in a
+ * concurrent map that only gets an entry once its id can be decoded.
+ */
+public class StringDictionary {
+    // id of null, never given to a value
+    public static final int NONE = -1;
+
+    // value -> id, written under the lock, read without it
+    private final Map<String, Integer> ids;
+    // values by id, replaced on growth, readers only see filled slots through size
+    private volatile String[] values;
+    private volatile int size;
+
+    public StringDictionary() {
+        this.ids = new ConcurrentHashMap<>();
+        this.values = new String[16];
+        this.size = 0;
+    }
+
+    /**
+     * @param value value to encode
+     * @return id of the value, a new one if it was not in the dictionary yet, NONE for null
+     */
+    public int encode(String value) {
+        if (value == null) {
+            return NONE;
+        }
+        // a value that is already known needs no lock
+        Integer id = ids.get(value);
+        return id != null ? id : add(value);
+    }
+
+    private synchronized int add(String value) {
+        Integer known = ids.get(value);
+        if (known != null) {
+            return known;
+        }
+        int id = size;
+        String[] current = values;
+        if (id == current.length) {
+            current = Arrays.copyOf(current, id * 2);
+        }
+        current[id] = value;
+        values = current;
+        size = id + 1;
+        // published last, whoever finds the id can decode it
+        ids.put(value, id);
+        return id;
+    }
+
+    /**
+     * @param id id given out by encode
+     * @return the value with that id, null for NONE
+     */
+    public String decode(int id) {
+        if (id == NONE) {
+            return null;
+        }
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("id " + id + " size " + size);
+        }
+        return values[id];
+    }
+
+    /**
+     * @param value value to look up
+     * @return id of the value, NONE if it was never encoded
+     */
+    public int find(String value) {
+        if (value == null) {
+            return NONE;
+        }
+        Integer id = ids.get(value);
+        return id == null ? NONE : id;
+    }
+
+    /**
+     * @return number of distinct values
+     */
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,127 @@
+import java.util.Arrays;
+
+/**
+ * TermDictionary gives every distinct word a dense int id. It is an open addressing hash table
+ * keyed on the chars of the word, so any CharSequence (a TitleTokenizer holding the current word,
+ * for instance) can be looked up without first being turned into a String. Each word is stored
+ * as a String once, when it is first added.
+ */
+public class TermDictionary {
+    // id + 1 of the word in each slot, 0 for an empty slot
+    private int[] slots;
+    // words and their hash codes by id
+    private String[] terms;
+    private int[] hashes;
+    private int size;
+
+    public TermDictionary() {
+        this.slots = new int[16];
+        this.terms = new String[8];
+        this.hashes = new int[8];
+        this.size = 0;
+    }
+
+    /**
+     * @param term word to look up
+     * @return id of the word, -1 if it has never been added
+     */
+    public int find(CharSequence term) {
+        int hash = hash(term);
+        int mask = slots.length - 1;
+        for (int i = spread(hash) & mask; slots[i] != 0; i = (i + 1) & mask) {
+            int id = slots[i] - 1;
+            if (hashes[id] == hash && contentEquals(terms[id], term)) {
+                return id;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param term word to add
+     * @return id of the word, a new id if it was not in the dictionary yet
+     */
+    public int add(CharSequence term) {
+        int hash = hash(term);
+        int mask = slots.length - 1;
+        int i = spread(hash) & mask;
+        for (; slots[i] != 0; i = (i + 1) & mask) {
+            int id = slots[i] - 1;
+            if (hashes[id] == hash && contentEquals(terms[id], term)) {
+                return id;
+            }
+        }
+        if (size == terms.length) {
+            terms = Arrays.copyOf(terms, size * 2);
+            hashes = Arrays.copyOf(hashes, size * 2);
+        }
+        int id = size++;
+        terms[id] = term.toString();
+        hashes[id] = hash;
+        slots[i] = id + 1;
+        // keep the table at most half full so probe sequences stay short
+        if (size * 2 > slots.length) {
+            rehash(slots.length * 2);
+        }
+        return id;
+    }
+
+    /**
+     * @param id id given out by add
+     * @return the word with that id
+     */
+    public String term(int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("id " + id + " size " + size);
+        }
+        return terms[id];
+    }
+
+    /**
+     * @return number of distinct words
+     */
+    public int size() {
+        return size;
+    }
+
+    private void rehash(int capacity) {
+        int[] grown = new int[capacity];
+        int mask = capacity - 1;
+        for (int id = 0; id < size; id++) {
+            int i = spread(hashes[id]) & mask;
+            while (grown[i] != 0) {
+                i = (i + 1) & mask;
+            }
+            grown[i] = id + 1;
+        }
+        slots = grown;
+    }
+
+    /**
+     * the same hash as String.hashCode, computed over any CharSequence
+     */
+    private static int hash(CharSequence s) {
+        int h = 0;
+        for (int i = 0; i < s.length(); i++) {
+            h = 31 * h + s.charAt(i);
+        }
+        return h;
+    }
+
+    private static int spread(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static boolean contentEquals(String term, CharSequence s) {
+        if (term.length() != s.length()) {
+            return false;
+        }
+        for (int i = 0; i < term.length(); i++) {
+            if (term.charAt(i) != s.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
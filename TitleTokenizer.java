@@ -0,0 +1,243 @@
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * TitleTokenizer splits text into normalized words without allocating per word. It scans any
+ * CharSequence in place and folds each word into a reusable buffer, the tokenizer itself is a
+ * CharSequence view of the current word, so dictionaries can look words up without a String.
+ *
+ * Normalization folds case, strips accents (é, É and e followed by a combining accent all become
+ * e), expands a few letters that have no decomposition (ß to ss, æ to ae, ø to o, ...) and treats
+ * anything that is not a letter or digit as a separator. Indexing and queries must both go
+ * through this class so they agree on every word.
+ *
+ * A tokenizer holds the state of one scan and is not thread safe, get() hands out one per thread.
+ */
+public class TitleTokenizer implements CharSequence {
+    // chars below this have their folded form precomputed
+    private static final int TABLE_SIZE = 0x2000;
+    // folded form of each char: null separates words, "" is dropped inside a word (combining
+    // marks), otherwise the one or two chars the char folds to
+    private static final String[] FOLD = new String[TABLE_SIZE];
+    private static final ThreadLocal<TitleTokenizer> LOCAL = ThreadLocal.withInitial(TitleTokenizer::new);
+
+    static {
+        for (int c = 0; c < TABLE_SIZE; c++) {
+            int type = Character.getType(c);
+            if (type == Character.NON_SPACING_MARK || type == Character.ENCLOSING_MARK
+                    || type == Character.COMBINING_SPACING_MARK) {
+                FOLD[c] = "";
+            } else if (Character.isLetterOrDigit(c)) {
+                char lower = Character.toLowerCase((char) c);
+                String special = expand(lower);
+                if (special != null) {
+                    FOLD[c] = special;
+                } else {
+                    StringBuilder base = new StringBuilder();
+                    for (char d : Normalizer.normalize(String.valueOf(lower), Normalizer.Form.NFD).toCharArray()) {
+                        if (Character.getType(d) != Character.NON_SPACING_MARK) {
+                            base.append(Character.toLowerCase(d));
+                        }
+                    }
+                    FOLD[c] = base.length() == 0 ? String.valueOf(lower) : base.toString();
+                }
+            }
+        }
+    }
+
+    /**
+     * @return what a letter without a decomposition folds to, null for every other letter
+     */
+    private static String expand(char lower) {
+        switch (lower) {
+        case '\u00DF': // sharp s
+            return "ss";
+        case '\u00E6':
+            return "ae";
+        case '\u0153':
+            return "oe";
+        case '\u00F8':
+            return "o";
+        case '\u0142':
+            return "l";
+        case '\u0111':
+        case '\u00F0':
+            return "d";
+        case '\u00FE':
+            return "th";
+        case '\u0131': // dotless i
+            return "i";
+        case '\u03C2': // final sigma
+            return "\u03C3";
+        default:
+            return null;
+        }
+    }
+
+    private CharSequence text;
+    private int pos;
+    private char[] buf;
+    private int len;
+
+    public TitleTokenizer() {
+        this.buf = new char[32];
+    }
+
+    /**
+     * @return the tokenizer of the calling thread, it must not be used for two scans at once
+     */
+    public static TitleTokenizer get() {
+        return LOCAL.get();
+    }
+
+    /**
+     * start scanning a new text
+     * @param text text to split, null is treated as empty
+     * @return this tokenizer
+     */
+    public TitleTokenizer reset(CharSequence text) {
+        this.text = text == null ? "" : text;
+        this.pos = 0;
+        this.len = 0;
+        return this;
+    }
+
+    /**
+     * move to the next word of the text
+     * @return true if there is one, the tokenizer then holds the word
+     */
+    public boolean next() {
+        len = 0;
+        int end = text.length();
+        while (pos < end) {
+            char c = text.charAt(pos++);
+            if (c < 0x80) {
+                // ascii fast path
+                if (c >= 'a' && c <= 'z' || c >= '0' && c <= '9') {
+                    append(c);
+                    continue;
+                }
+                if (c >= 'A' && c <= 'Z') {
+                    append((char) (c + ('a' - 'A')));
+                    continue;
+                }
+            } else if (c < TABLE_SIZE) {
+                String folded = FOLD[c];
+                if (folded != null) {
+                    for (int i = 0; i < folded.length(); i++) {
+                        append(folded.charAt(i));
+                    }
+                    continue;
+                }
+            } else if (Character.isHighSurrogate(c) && pos < end && Character.isLowSurrogate(text.charAt(pos))) {
+                int cp = Character.toCodePoint(c, text.charAt(pos));
+                if (Character.isLetterOrDigit(cp)) {
+                    pos++;
+                    cp = Character.toLowerCase(cp);
+                    ensure(2);
+                    len += Character.toChars(cp, buf, len);
+                    continue;
+                }
+            } else if (isMark(c)) {
+                continue;
+            } else if (Character.isLetterOrDigit(c)) {
+                append(Character.toLowerCase(Character.toUpperCase(c)));
+                continue;
+            }
+            // a separator ends the word, if there is one
+            if (len > 0) {
+                return true;
+            }
+        }
+        return len > 0;
+    }
+
+    private static boolean isMark(char c) {
+        int type = Character.getType(c);
+        return type == Character.NON_SPACING_MARK || type == Character.ENCLOSING_MARK
+                || type == Character.COMBINING_SPACING_MARK;
+    }
+
+    private void append(char c) {
+        ensure(1);
+        buf[len++] = c;
+    }
+
+    private void ensure(int extra) {
+        if (len + extra > buf.length) {
+            char[] grown = new char[buf.length * 2];
+            System.arraycopy(buf, 0, grown, 0, len);
+            buf = grown;
+        }
+    }
+
+    /**
+     * @return the chars of the current word, only the first length() are valid
+     */
+    public char[] buffer() {
+        return buf;
+    }
+
+    @Override
+    public int length() {
+        return len;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= len) {
+            throw new IndexOutOfBoundsException("index " + index + " length " + len);
+        }
+        return buf[index];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > len || start > end) {
+            throw new IndexOutOfBoundsException("range " + start + ".." + end + " length " + len);
+        }
+        return new String(buf, start, end - start);
+    }
+
+    /**
+     * @return the current word as a new String
+     */
+    @Override
+    public String toString() {
+        return new String(buf, 0, len);
+    }
+
+    /**
+     * split the text into normalized words, allocates a String per word, meant for callers that
+     * keep the words
+     * @param text text to split
+     * @return the words of the text in order
+     */
+    public static List<String> terms(CharSequence text) {
+        List<String> terms = new ArrayList<>();
+        TitleTokenizer tokenizer = new TitleTokenizer().reset(text);
+        while (tokenizer.next()) {
+            terms.add(tokenizer.toString());
+        }
+        return terms;
+    }
+
+    /**
+     * normalize a whole query, its words separated by single spaces, used for prefix and substring
+     * searches that match against single words
+     * @param text text to normalize
+     * @return the normalized text, empty if it has no words
+     */
+    public static String normalize(CharSequence text) {
+        StringBuilder sb = new StringBuilder();
+        TitleTokenizer tokenizer = new TitleTokenizer().reset(text);
+        while (tokenizer.next()) {
+            if (sb.length() > 0) {
+                sb.append(' ');
+            }
+            sb.append(tokenizer.buf, 0, tokenizer.len);
+        }
+        return sb.toString();
+    }
+}
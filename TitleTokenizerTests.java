@@ -0,0 +1,71 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Indexing and queries only agree on a word if both fold it the same way, so every spelling of a
+ * word, whatever its case and accents, must come out of the tokenizer as the same lower case,
+ * unaccented word.
+ */
+public class TitleTokenizerTests {
+
+    @Test
+    public void foldsCase() {
+        assertEquals(Arrays.asList("harry", "potter"), TitleTokenizer.terms("HARRY Potter"));
+        assertEquals("harry potter", TitleTokenizer.normalize("hArRy  POTTER"));
+        // other scripts fold too, accents included
+        assertEquals(Arrays.asList("οδυσσεια"), TitleTokenizer.terms("ΟΔΎΣΣΕΙΑ"));
+    }
+
+    @Test
+    public void stripsAccents() {
+        // precomposed, upper case precomposed and e followed by a combining acute accent
+        for (String word : new String[] {"café", "CAFÉ", "cafe\u0301", "CAFE\u0301", "cafè",
+                "cafê", "cafë"}) {
+            assertEquals(Collections.singletonList("cafe"), TitleTokenizer.terms(word), word);
+        }
+        assertEquals("les miserables", TitleTokenizer.normalize("Les Misérables"));
+        assertEquals("senor nino", TitleTokenizer.normalize("SeÑor Niño"));
+        assertEquals("garcia marquez", TitleTokenizer.normalize("García Márquez"));
+        assertEquals("bronte", TitleTokenizer.normalize("Brontë"));
+    }
+
+    @Test
+    public void expandsLettersWithoutADecomposition() {
+        assertEquals("strasse", TitleTokenizer.normalize("Straße"));
+        assertEquals("aesop", TitleTokenizer.normalize("Æsop"));
+        assertEquals("oeuvre", TitleTokenizer.normalize("Œuvre"));
+        assertEquals("orsted", TitleTokenizer.normalize("Ørsted"));
+        assertEquals("lodz", TitleTokenizer.normalize("Łódź"));
+        assertEquals("thorn", TitleTokenizer.normalize("Þorn"));
+        // final and medial sigma are one letter
+        assertEquals("λογοσ", TitleTokenizer.normalize("ΛΌΓΟΣ"));
+        assertEquals("λογοσ", TitleTokenizer.normalize("λόγος"));
+    }
+
+    @Test
+    public void splitsOnEverythingButLettersAndDigits() {
+        assertEquals(Arrays.asList("harry", "potter", "and", "the", "half", "blood", "prince", "6"),
+                TitleTokenizer.terms("Harry Potter and the Half-Blood Prince (#6)"));
+        assertEquals(Arrays.asList("l", "etranger"), TitleTokenizer.terms("L'Étranger"));
+        assertEquals(Collections.emptyList(), TitleTokenizer.terms(" -- ... "));
+        assertEquals("", TitleTokenizer.normalize(null));
+    }
+
+    @Test
+    public void theTokenizerIsTheCurrentWord() {
+        TitleTokenizer tokenizer = TitleTokenizer.get().reset("Café ÜBER");
+        assertTrue(tokenizer.next());
+        assertEquals("cafe", tokenizer.toString());
+        assertEquals(4, tokenizer.length());
+        assertEquals("af", tokenizer.subSequence(1, 3));
+        assertTrue(tokenizer.next());
+        assertEquals("uber", tokenizer.toString());
+        assertFalse(tokenizer.next());
+    }
+}
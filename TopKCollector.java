@@ -0,0 +1,109 @@
+/**
+ * TopKCollector keeps the k best scored book ids seen so far in a bounded binary min-heap on two
+ * primitive arrays, the worst kept id sits at the root. Offering an id costs O(log k) at most and
+ * memory stays O(k) however many candidates are offered. Equal scores keep the smaller id, so the
+ * result is the same as a stable sort of the candidates in id order.
+ */
+public class TopKCollector {
+    private final int[] ids;
+    private final double[] scores;
+    private int size;
+
+    /**
+     * @param k number of ids to keep
+     */
+    public TopKCollector(int k) {
+        if (k < 1) {
+            throw new IllegalArgumentException("k must be positive");
+        }
+        this.ids = new int[k];
+        this.scores = new double[k];
+        this.size = 0;
+    }
+
+    /**
+     * offer a candidate, it is kept if it beats the worst of the current k
+     * @param id book id
+     * @param score score of the book, higher is better
+     */
+    public void offer(int id, double score) {
+        if (size < ids.length) {
+            ids[size] = id;
+            scores[size] = score;
+            siftUp(size++);
+        } else if (worse(0, id, score)) {
+            ids[0] = id;
+            scores[0] = score;
+            siftDown(0);
+        }
+    }
+
+    /**
+     * @return number of ids kept
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the kept ids, best first; the collector is empty afterwards
+     */
+    public int[] drain() {
+        int[] result = new int[size];
+        for (int i = size - 1; i >= 0; i--) {
+            result[i] = ids[0];
+            size--;
+            ids[0] = ids[size];
+            scores[0] = scores[size];
+            siftDown(0);
+        }
+        return result;
+    }
+
+    /**
+     * @return true if the entry at slot i ranks below the candidate
+     */
+    private boolean worse(int i, int id, double score) {
+        int cmp = Double.compare(scores[i], score);
+        return cmp < 0 || (cmp == 0 && ids[i] > id);
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!worse(i, ids[parent], scores[parent])) {
+                break;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= size) {
+                break;
+            }
+            int worst = left;
+            int right = left + 1;
+            if (right < size && worse(right, ids[left], scores[left])) {
+                worst = right;
+            }
+            if (!worse(worst, ids[i], scores[i])) {
+                break;
+            }
+            swap(i, worst);
+            i = worst;
+        }
+    }
+
+    private void swap(int a, int b) {
+        int id = ids[a];
+        ids[a] = ids[b];
+        ids[b] = id;
+        double score = scores[a];
+        scores[a] = scores[b];
+        scores[b] = score;
+    }
+}
@@ -0,0 +1,101 @@
+package benchmarks;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import catalog.CatalogGenerator;
+import catalog.IBook;
+import catalog.StreamingBookLoader;
+
+/**
+ * Catalogs the benchmarks run on: books.xml itself for scale 1, and synthetic catalogs written
+ * by CatalogGenerator for larger scales. Generated files are kept in target/ and reused by later
+ * runs and forks. The source catalog is ../books.xml unless -Dbooks.xml points elsewhere.
+ */
+final class Catalogs {
+    private static final long SEED = 42;
+
+    private Catalogs() {
+    }
+
+    /**
+     * @param scale how many times books.xml the catalog is
+     * @return path of the catalog file, generated on first use
+     */
+    static synchronized String file(int scale) throws Exception {
+        String source = System.getProperty("books.xml", "../books.xml");
+        if (scale == 1) {
+            return source;
+        }
+        File file = new File("target", "books-x" + scale + ".xml");
+        if (!file.isFile()) {
+            file.getParentFile().mkdirs();
+            File tmp = new File(file.getPath() + ".tmp");
+            try (OutputStream out = new BufferedOutputStream(new FileOutputStream(tmp))) {
+                new CatalogGenerator(source).generate(scale, out, SEED);
+            }
+            if (!tmp.renameTo(file)) {
+                throw new IllegalStateException("cannot move " + tmp + " to " + file);
+            }
+        }
+        return file.getPath();
+    }
+
+    /**
+     * @param scale how many times books.xml the catalog is
+     * @return every book of the catalog in file order
+     */
+    static List<IBook> books(int scale) throws Exception {
+        List<IBook> books = new ArrayList<>();
+        new StreamingBookLoader().loadBooks(file(scale), books::add);
+        return books;
+    }
+
+    /**
+     * a query mix drawn from the catalog itself: mostly single title words picked from random
+     * books (so common words come up as often as they do in titles), some two word queries from
+     * the same title and a few words no title has
+     * @param books the catalog
+     * @param count number of queries
+     * @return the queries
+     */
+    static String[] titleQueries(List<IBook> books, int count) {
+        Random random = new Random(SEED);
+        String[] queries = new String[count];
+        for (int i = 0; i < count; i++) {
+            int kind = random.nextInt(100);
+            if (kind < 5) {
+                queries[i] = "zzqx" + i;
+                continue;
+            }
+            String[] words = books.get(random.nextInt(books.size())).getTitle().split("[^\\p{L}\\p{N}]+");
+            String word = words[random.nextInt(words.length)];
+            if (kind < 20 && words.length > 1) {
+                word = word + " " + words[random.nextInt(words.length)];
+            }
+            queries[i] = word.isEmpty() ? "the" : word;
+        }
+        return queries;
+    }
+
+    /**
+     * ratings of random books, plus a few ratings no book has
+     * @param books the catalog
+     * @param count number of ratings
+     * @return the ratings
+     */
+    static double[] ratingQueries(List<IBook> books, int count) {
+        Random random = new Random(SEED);
+        double[] ratings = new double[count];
+        for (int i = 0; i < count; i++) {
+            ratings[i] = random.nextInt(100) < 5 ? 4.567
+                    : books.get(random.nextInt(books.size())).getRating();
+        }
+        return ratings;
+    }
+}
@@ -0,0 +1,81 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import catalog.BookFilter;
+import catalog.BookSearcherBackend;
+import catalog.EpochDay;
+import catalog.IBook;
+
+/**
+ * Books published 2000 to 2005: a scan over every book comparing its date, the date index walk,
+ * and the date range combined with a title search and a rating range search through BookFilter.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Thread)
+public class DateRangeBenchmark {
+    private static final int FROM = EpochDay.of(2000, 1, 1);
+    private static final int TO = EpochDay.of(2005, 12, 31);
+
+    @Param({"1", "10"})
+    public int scale;
+
+    private List<IBook> books;
+    private BookSearcherBackend backend;
+
+    @Setup
+    public void setup() throws Exception {
+        books = Catalogs.books(scale);
+        backend = new BookSearcherBackend();
+        backend.addBooks(books);
+    }
+
+    private static BookFilter filter() {
+        return new BookFilter().publishedBetween(FROM, TO);
+    }
+
+    @Benchmark
+    public List<IBook> scan() {
+        List<IBook> result = new ArrayList<>();
+        for (IBook book : books) {
+            int day = book.getPublicationDate();
+            if (day != EpochDay.NONE && day >= FROM && day <= TO) {
+                result.add(book);
+            }
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<IBook> dateIndex() {
+        return backend.searchByPublicationDate(FROM, TO);
+    }
+
+    @Benchmark
+    public List<IBook> titleWordInRange() {
+        return backend.searchByTitleWord("the", filter());
+    }
+
+    @Benchmark
+    public List<IBook> ratingRangeInRange() {
+        return backend.searchByRatingRange(3.5, 4.5, filter());
+    }
+}
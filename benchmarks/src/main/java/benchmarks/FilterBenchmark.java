@@ -0,0 +1,72 @@
+package benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import catalog.BookFilter;
+import catalog.BookSearcherBackend;
+import catalog.IBook;
+
+/**
+ * The filter step of BookFrontend.displayBooks (language, more ratings than, fewer pages than)
+ * over a broad rating range result: the original chain of one filter call per filter, the
+ * single pass BookFilter, and the bitmap index search that filters while it searches.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Thread)
+public class FilterBenchmark {
+    private static final double MIN = 3.5;
+    private static final double MAX = 4.5;
+
+    @Param({"1", "10"})
+    public int scale;
+
+    private BookSearcherBackend backend;
+    private List<IBook> candidates;
+
+    @Setup
+    public void setup() throws Exception {
+        backend = new BookSearcherBackend();
+        for (IBook book : Catalogs.books(scale)) {
+            backend.addBook(book);
+        }
+        candidates = backend.searchByRatingRange(MIN, MAX);
+    }
+
+    private static BookFilter filter() {
+        return new BookFilter().language("eng").moreRatingsThan(100).fewerPagesThan(400);
+    }
+
+    @Benchmark
+    public List<IBook> filterChain() {
+        List<IBook> books = backend.getLanFilter("eng", candidates);
+        books = backend.getRateFilter(100, books);
+        return backend.getPagesFilter(400, books);
+    }
+
+    @Benchmark
+    public List<IBook> singlePassFilter() {
+        return backend.filter(filter(), candidates);
+    }
+
+    @Benchmark
+    public List<IBook> bitmapFilteredSearch() {
+        return backend.searchByRatingRange(MIN, MAX, filter());
+    }
+}
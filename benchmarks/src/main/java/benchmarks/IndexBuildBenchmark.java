@@ -0,0 +1,68 @@
+package benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import catalog.BookSearcherBackend;
+import catalog.IBook;
+import catalog.OffHeapBookStore;
+
+/**
+ * Building every index of the backend from an already parsed catalog, one addBook per book and
+ * in one bulk addBooks.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class IndexBuildBenchmark {
+
+    @Param({"1", "10"})
+    public int scale;
+
+    private List<IBook> books;
+
+    @Setup
+    public void setup() throws Exception {
+        books = Catalogs.books(scale);
+    }
+
+    @Benchmark
+    public BookSearcherBackend addBook() {
+        BookSearcherBackend backend = new BookSearcherBackend();
+        for (IBook book : books) {
+            backend.addBook(book);
+        }
+        return backend;
+    }
+
+    @Benchmark
+    public BookSearcherBackend addBookOffHeap() {
+        BookSearcherBackend backend = new BookSearcherBackend(new OffHeapBookStore());
+        for (IBook book : books) {
+            backend.addBook(book);
+        }
+        return backend;
+    }
+
+    @Benchmark
+    public BookSearcherBackend addBooks() {
+        BookSearcherBackend backend = new BookSearcherBackend();
+        backend.addBooks(books);
+        return backend;
+    }
+}
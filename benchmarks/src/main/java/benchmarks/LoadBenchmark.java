@@ -0,0 +1,58 @@
+package benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import catalog.BookLoader;
+import catalog.IBook;
+import catalog.ParallelBookLoader;
+import catalog.StreamingBookLoader;
+
+/**
+ * Parsing the catalog xml into books with each loader.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class LoadBenchmark {
+
+    @Param({"1", "10"})
+    public int scale;
+
+    private String file;
+
+    @Setup
+    public void setup() throws Exception {
+        file = Catalogs.file(scale);
+    }
+
+    @Benchmark
+    public List<IBook> domLoader() throws Exception {
+        return new BookLoader().loadBooks(file);
+    }
+
+    @Benchmark
+    public List<IBook> streamingLoader() throws Exception {
+        return new StreamingBookLoader().loadBooks(file);
+    }
+
+    @Benchmark
+    public List<IBook> parallelLoader() throws Exception {
+        return new ParallelBookLoader().loadBooks(file);
+    }
+}
@@ -0,0 +1,148 @@
+package benchmarks;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import catalog.Book;
+import catalog.BookBucket;
+import catalog.BookColumns;
+import catalog.IBook;
+import catalog.IBookStore;
+import catalog.RedBlackTree;
+import catalog.RedBlackTreeSortedSets;
+
+/**
+ * RedBlackTree insert and contains on distinct Integer keys, inserted in random and in sorted
+ * order. Half of the contains lookups miss. The append benchmarks insert one book per key under
+ * only a few distinct words of a word tree and then search every word once. LinkedList buckets
+ * removeAll on every append; BookBuckets, what the backend's word trees use, append in O(1) and
+ * sort once on the first search. Growing the size tenfold should cost about a hundredfold and a
+ * tenfold respectively.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class RedBlackTreeBenchmark {
+    private static final int LOOKUPS = 1024;
+    private static final int APPEND_KEYS = 16;
+
+    @Param({"10000", "100000"})
+    public int size;
+
+    private Integer[] randomKeys;
+    private Integer[] sortedKeys;
+    private Integer[] lookups;
+    private RedBlackTree<Integer, List<Integer>> tree;
+    // one book per key, book id key / 2, titles in random order
+    private IBookStore store;
+    private int next;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        randomKeys = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            // even keys, so odd lookups miss
+            randomKeys[i] = 2 * i;
+        }
+        for (int i = size - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            Integer swap = randomKeys[i];
+            randomKeys[i] = randomKeys[j];
+            randomKeys[j] = swap;
+        }
+        sortedKeys = randomKeys.clone();
+        Arrays.sort(sortedKeys);
+        lookups = new Integer[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            lookups[i] = random.nextInt(2 * size);
+        }
+        tree = build(randomKeys);
+        store = new BookColumns(size);
+        for (int i = 0; i < size; i++) {
+            store.add(new Book("Title " + random.nextInt(), "Author", 4.0, 100, "eng", 1));
+        }
+    }
+
+    private static RedBlackTree<Integer, List<Integer>> build(Integer[] keys) {
+        RedBlackTree<Integer, List<Integer>> tree = new RedBlackTree<>();
+        for (Integer key : keys) {
+            List<Integer> data = new LinkedList<>();
+            data.add(key);
+            tree.insert(key, data);
+        }
+        return tree;
+    }
+
+    @Benchmark
+    public RedBlackTree<Integer, List<Integer>> insertRandom() {
+        return build(randomKeys);
+    }
+
+    @Benchmark
+    public RedBlackTree<Integer, List<Integer>> insertSorted() {
+        return build(sortedKeys);
+    }
+
+    @Benchmark
+    public boolean contains() {
+        return tree.contains(lookups[next++ & (LOOKUPS - 1)]);
+    }
+
+    private static String word(int id) {
+        return "word" + id % APPEND_KEYS;
+    }
+
+    /**
+     * search every word of the tree once
+     * @return number of books found
+     */
+    private static int searchAll(RedBlackTreeSortedSets<String, List<IBook>> tree) {
+        int found = 0;
+        for (int i = 0; i < APPEND_KEYS; i++) {
+            found += tree.search(word(i)).size();
+        }
+        return found;
+    }
+
+    @Benchmark
+    public int appendLinkedList() {
+        RedBlackTreeSortedSets<String, List<IBook>> tree = new RedBlackTreeSortedSets<>();
+        for (Integer key : randomKeys) {
+            int id = key / 2;
+            List<IBook> data = new LinkedList<>();
+            data.add(store.get(id));
+            tree.insert(word(id), data);
+        }
+        return searchAll(tree);
+    }
+
+    @Benchmark
+    public int appendBookBucket() {
+        RedBlackTreeSortedSets<String, List<IBook>> tree = new RedBlackTreeSortedSets<>();
+        for (Integer key : randomKeys) {
+            int id = key / 2;
+            tree.insert(word(id), new BookBucket(store, id));
+        }
+        // the first search of a word sorts its bucket
+        return searchAll(tree);
+    }
+}
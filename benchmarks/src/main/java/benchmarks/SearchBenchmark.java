@@ -0,0 +1,84 @@
+package benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import catalog.BookRanking;
+import catalog.BookSearcherBackend;
+import catalog.IBook;
+
+/**
+ * Searches over a loaded backend with a query mix drawn from the catalog, every invocation runs
+ * the next query of the mix.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Thread)
+public class SearchBenchmark {
+    private static final int QUERIES = 1024;
+
+    @Param({"1", "10"})
+    public int scale;
+
+    private BookSearcherBackend backend;
+    private String[] titleQueries;
+    private double[] ratingQueries;
+    private int next;
+
+    @Setup
+    public void setup() throws Exception {
+        List<IBook> books = Catalogs.books(scale);
+        backend = new BookSearcherBackend();
+        for (IBook book : books) {
+            backend.addBook(book);
+        }
+        titleQueries = Catalogs.titleQueries(books, QUERIES);
+        ratingQueries = Catalogs.ratingQueries(books, QUERIES);
+    }
+
+    private int next() {
+        return next++ & (QUERIES - 1);
+    }
+
+    @Benchmark
+    public List<IBook> searchByTitleWord() {
+        return backend.searchByTitleWord(titleQueries[next()]);
+    }
+
+    @Benchmark
+    public List<IBook> searchByTitleWordTop10() {
+        return backend.searchByTitleWord(titleQueries[next()], 10, BookRanking.WEIGHTED);
+    }
+
+    @Benchmark
+    public List<IBook> searchByTitlePrefix() {
+        String query = titleQueries[next()];
+        return backend.searchByTitlePrefix(query.substring(0, Math.min(3, query.length())));
+    }
+
+    @Benchmark
+    public List<IBook> searchByRating() {
+        return backend.searchByRating(ratingQueries[next()]);
+    }
+
+    @Benchmark
+    public List<IBook> searchByRatingRange() {
+        double rating = ratingQueries[next()];
+        return backend.searchByRatingRange(rating, rating + 0.05);
+    }
+}